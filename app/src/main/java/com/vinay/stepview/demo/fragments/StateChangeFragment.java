@@ -62,10 +62,12 @@ public class StateChangeFragment extends Fragment {
     mPrevStepBtn.setOnClickListener(new View.OnClickListener() {
       @Override
       public void onClick(View view) {
+        mHorizontalStepView.beginBatch(); // Apply both state changes in a single update
         mHorizontalStepView.setStepState(mCurrentStepState, mCurrentStepIndex); // Restore step state
         mCurrentStepIndex--; // Change step
         mCurrentStepState = mHorizontalStepView.getStep(mCurrentStepIndex).getState(); // Save new step state
         mHorizontalStepView.setStepState(Step.State.CURRENT, mCurrentStepIndex); // Mark new step as CURRENT
+        mHorizontalStepView.endBatch();
 
         updateDirectionButtonStates();
         updateToggleButtonText();
@@ -75,10 +77,12 @@ public class StateChangeFragment extends Fragment {
     mNextStepBtn.setOnClickListener(new View.OnClickListener() {
       @Override
       public void onClick(View view) {
+        mHorizontalStepView.beginBatch(); // Apply both state changes in a single update
         mHorizontalStepView.setStepState(mCurrentStepState, mCurrentStepIndex); // Restore step state
         mCurrentStepIndex++; // Change step
         mCurrentStepState = mHorizontalStepView.getStep(mCurrentStepIndex).getState(); // Save new step state
         mHorizontalStepView.setStepState(Step.State.CURRENT, mCurrentStepIndex); // Mark new step as CURRENT
+        mHorizontalStepView.endBatch();
 
         updateDirectionButtonStates();
         updateToggleButtonText();
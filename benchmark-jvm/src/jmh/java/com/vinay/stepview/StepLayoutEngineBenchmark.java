@@ -0,0 +1,81 @@
+package com.vinay.stepview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the geometry of the steps, computed by {@link StepLayoutEngine} on every measure and
+ * read by the indicators on every frame.
+ * <p>
+ * Run on the JVM with <code>./gradlew :benchmark-jvm:jmh</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StepLayoutEngineBenchmark {
+
+  private static final float SIZE = 1080;
+  private static final float RADIUS = 30;
+  private static final float LINE_LENGTH = 90;
+
+  @Param({"5", "50", "500"})
+  public int stepCount;
+
+  private final StepLayoutEngine mEngine = new StepLayoutEngine();
+  private boolean mIsReverse;
+
+  @Setup
+  public void setUp() {
+    mEngine.layout(stepCount, SIZE, RADIUS, LINE_LENGTH, false, true);
+  }
+
+  /**
+   * Computes the whole geometry, as when the indicator is resized or the steps change
+   */
+  @Benchmark
+  public boolean layout() {
+    // Alternate the direction, so that the geometry is recomputed every time
+    mIsReverse = !mIsReverse;
+    return mEngine.layout(stepCount, SIZE, RADIUS, LINE_LENGTH, mIsReverse, true);
+  }
+
+  /**
+   * Checks that the geometry is up to date, as every frame does
+   */
+  @Benchmark
+  public boolean layoutUnchanged() {
+    return mEngine.layout(stepCount, SIZE, RADIUS, LINE_LENGTH, false, true);
+  }
+
+  /**
+   * Reads the centers and lines of all the steps, as a frame that draws all the steps does
+   */
+  @Benchmark
+  public void readGeometry(Blackhole blackhole) {
+    final StepLayoutEngine engine = mEngine;
+    for (int i = 0; i < engine.getStepCount(); i++) {
+      blackhole.consume(engine.getCenter(i));
+    }
+    for (int i = 0; i < engine.getLineCount(); i++) {
+      blackhole.consume(engine.getLineStart(i));
+      blackhole.consume(engine.getLineEnd(i));
+    }
+  }
+
+  /**
+   * Finds the step at a position, as a scrolled indicator does for both ends of its viewport
+   */
+  @Benchmark
+  public int getStepAt() {
+    return mEngine.getStepAt(SIZE / 3);
+  }
+}
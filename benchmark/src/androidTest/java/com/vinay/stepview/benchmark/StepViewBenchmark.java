@@ -0,0 +1,213 @@
+package com.vinay.stepview.benchmark;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.View;
+import android.widget.LinearLayout;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.vinay.stepview.HorizontalStepView;
+import com.vinay.stepview.R;
+import com.vinay.stepview.StepView;
+import com.vinay.stepview.VerticalStepView;
+import com.vinay.stepview.models.Step;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks the main operations of {@link HorizontalStepView} and {@link VerticalStepView}, with
+ * 5, 50 and 500 steps.
+ * <p>
+ * The StepViews are not attached to a window, and every operation runs on the main thread. Run on
+ * a device with <code>./gradlew :benchmark:connectedCheck</code>.
+ */
+@RunWith(Parameterized.class)
+public class StepViewBenchmark {
+
+  private static final String HORIZONTAL = "horizontal";
+  private static final String VERTICAL = "vertical";
+
+  private static final int WIDTH = 1080;
+  private static final int HEIGHT = 1920;
+
+  @Parameterized.Parameters(name = "{0}_{1}Steps")
+  public static List<Object[]> parameters() {
+    List<Object[]> parameters = new ArrayList<>();
+    for (String orientation : new String[]{HORIZONTAL, VERTICAL}) {
+      for (int stepCount : new int[]{5, 50, 500}) {
+        parameters.add(new Object[]{orientation, stepCount});
+      }
+    }
+    return parameters;
+  }
+
+  @Rule
+  public final BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+  private final String mOrientation;
+  private final int mStepCount;
+
+  public StepViewBenchmark(String orientation, int stepCount) {
+    mOrientation = orientation;
+    mStepCount = stepCount;
+  }
+
+  /**
+   * Constructs a StepView, which builds its children programmatically
+   */
+  @Test
+  public void construct() {
+    runOnMainThread(new Runnable() {
+      @Override
+      public void run() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+          createStepView();
+        }
+      }
+    });
+  }
+
+  /**
+   * Baseline for {@link #construct()}: inflates the layout that a StepView used to inflate into
+   * itself to create its children, into a LinearLayout like a StepView. A StepView used to cost
+   * about the time of construct() with this time in place of building its children.
+   */
+  @Test
+  public void inflateLayout() {
+    runOnMainThread(new Runnable() {
+      @Override
+      public void run() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        int layout = HORIZONTAL.equals(mOrientation) ? R.layout.horizontal_step_view : R.layout.vertical_step_view;
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+          View.inflate(context, layout, new LinearLayout(context));
+        }
+      }
+    });
+  }
+
+  @Test
+  public void measureAndLayout() {
+    runOnMainThread(new Runnable() {
+      @Override
+      public void run() {
+        StepView stepView = createStepView();
+        stepView.setSteps(createSteps("Step"));
+        int width = WIDTH;
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+          // Alternate between two widths, so that the StepView is measured every time
+          width = width == WIDTH ? WIDTH - 1 : WIDTH;
+          measureAndLayout(stepView, width);
+        }
+      }
+    });
+  }
+
+  /**
+   * Draws the StepView on a software canvas the size of a screen. Steps outside of the canvas
+   * are clipped, but are still drawn.
+   */
+  @Test
+  public void draw() {
+    runOnMainThread(new Runnable() {
+      @Override
+      public void run() {
+        StepView stepView = createStepView();
+        stepView.setSteps(createSteps("Step"));
+        measureAndLayout(stepView, WIDTH);
+        Canvas canvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+          stepView.draw(canvas);
+        }
+      }
+    });
+  }
+
+  /**
+   * Changes the state of the step in the middle, and brings its label up to date
+   */
+  @Test
+  public void setStepState() {
+    runOnMainThread(new Runnable() {
+      @Override
+      public void run() {
+        StepView stepView = createStepView();
+        stepView.setSteps(createSteps("Step"));
+        measureAndLayout(stepView, WIDTH);
+        final int stepPosition = mStepCount / 2;
+        boolean isCompleted = false;
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+          isCompleted = !isCompleted;
+          stepView.setStepState(isCompleted ? Step.State.COMPLETED : Step.State.CURRENT, stepPosition);
+        }
+      }
+    });
+  }
+
+  /**
+   * Replaces all the steps with steps of the same states but different names, and brings all the
+   * labels up to date
+   */
+  @Test
+  public void setSteps() {
+    runOnMainThread(new Runnable() {
+      @Override
+      public void run() {
+        StepView stepView = createStepView();
+        List<Step> steps = createSteps("Step");
+        List<Step> otherSteps = createSteps("Task");
+        stepView.setSteps(steps);
+        measureAndLayout(stepView, WIDTH);
+        boolean isOther = false;
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+          isOther = !isOther;
+          stepView.setSteps(isOther ? otherSteps : steps);
+        }
+      }
+    });
+  }
+
+  private StepView createStepView() {
+    Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+    return HORIZONTAL.equals(mOrientation) ? new HorizontalStepView(context) : new VerticalStepView(context);
+  }
+
+  /**
+   * Returns steps whose first third is completed, followed by the current step
+   */
+  private List<Step> createSteps(String namePrefix) {
+    final int currentStep = mStepCount / 3;
+    List<Step> steps = new ArrayList<>(mStepCount);
+    for (int i = 0; i < mStepCount; i++) {
+      Step.State state = i < currentStep ? Step.State.COMPLETED : i == currentStep ? Step.State.CURRENT : Step.State.NOT_COMPLETED;
+      steps.add(new Step(namePrefix + " " + i, state));
+    }
+    return steps;
+  }
+
+  private static void measureAndLayout(StepView stepView, int width) {
+    stepView.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+    stepView.layout(0, 0, stepView.getMeasuredWidth(), stepView.getMeasuredHeight());
+  }
+
+  private static void runOnMainThread(Runnable runnable) {
+    InstrumentationRegistry.getInstrumentation().runOnMainSync(runnable);
+  }
+}
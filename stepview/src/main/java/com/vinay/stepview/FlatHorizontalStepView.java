@@ -0,0 +1,38 @@
+package com.vinay.stepview;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+
+import com.vinay.stepview.models.Step;
+
+/**
+ * A single-view alternative to {@link HorizontalStepView}: displays steps horizontally, with the
+ * name of the {@link Step} below the {@link android.graphics.drawable.Drawable Drawable} that
+ * represents its state, without any child view.
+ *
+ * @see FlatStepView
+ */
+public class FlatHorizontalStepView extends FlatStepView {
+
+  public FlatHorizontalStepView(Context context) {
+    this(context, null);
+  }
+
+  public FlatHorizontalStepView(Context context, AttributeSet attrs) {
+    this(context, attrs, R.attr.stepViewStyle);
+  }
+
+  public FlatHorizontalStepView(Context context, AttributeSet attrs, int defStyleAttr) {
+    super(context, attrs, defStyleAttr);
+    // Same margin as the indicator of a HorizontalStepView
+    mIndicatorMarginTop = (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 4, getResources().getDisplayMetrics());
+    init(new HorizontalStepViewIndicator(context));
+    applyAttributes(attrs, defStyleAttr);
+  }
+
+  @Override
+  protected boolean isVertical() {
+    return false;
+  }
+}
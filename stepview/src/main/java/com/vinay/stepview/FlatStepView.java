@@ -0,0 +1,106 @@
+package com.vinay.stepview;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import android.util.AttributeSet;
+import android.widget.TextView;
+
+/**
+ * Base class of the StepViews that are a single view: the lines, the step icons and the names of
+ * the steps are measured, laid out and drawn by the StepView itself, which has no children.
+ * <p>
+ * A {@link HorizontalStepView} or {@link VerticalStepView} adds at least four views to the
+ * hierarchy, plus one {@link TextView} per step unless the labels are drawn on the canvas. A
+ * FlatStepView adds exactly one, which makes it cheaper to inflate, measure and draw, e.g. in the
+ * rows of a list. It has the same public API as {@link StepView}, with the names of the steps always
+ * drawn on the canvas (see {@link #setCanvasLabelsEnabled(boolean)}). Its steps cannot be scrolled.
+ */
+public abstract class FlatStepView extends StepView {
+
+    int mIndicatorMarginTop; // Distance between the top padding and the steps, in pixels
+
+    public FlatStepView(Context context) {
+        this(context, null);
+    }
+
+    public FlatStepView(Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public FlatStepView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+    }
+
+    /**
+     * Sets the {@link StepViewIndicator} that draws the steps. Derived classes invoke this once from
+     * their constructor, before {@link #applyAttributes(AttributeSet, int)}.
+     * <p>
+     * The indicator is never added as a child: it is measured, laid out and drawn by the
+     * FlatStepView, to which it forwards its invalidations and layout requests.
+     *
+     * @param stepViewIndicator - The indicator, which draws the names of the steps too
+     */
+    void init(@NonNull StepViewIndicator stepViewIndicator) {
+        mStepViewIndicator = stepViewIndicator;
+        mStepViewIndicator.setHost(this);
+        mStepViewIndicator.setOnUpdateIndicatorListener(this);
+        mStepViewIndicator.setLabelRenderer(new StepLabelRenderer());
+        setWillNotDraw(false);
+    }
+
+    /**
+     * The names of the steps of a FlatStepView are always drawn on the canvas, so this has no effect.
+     *
+     * @param isCanvasLabelsEnabled - Ignored
+     * @return The current {@link StepView} instance, for chaining
+     */
+    @Override
+    public StepView setCanvasLabelsEnabled(boolean isCanvasLabelsEnabled) {
+        return this;
+    }
+
+    @Override
+    void measureSteps(int widthMeasureSpec, int heightMeasureSpec) {
+        final int horizontalPadding = getPaddingLeft() + getPaddingRight();
+        final int verticalPadding = getPaddingTop() + getPaddingBottom() + mIndicatorMarginTop;
+        // Same as a match_parent x wrap_content child
+        mStepViewIndicator.measure(
+                getChildMeasureSpec(widthMeasureSpec, horizontalPadding, LayoutParams.MATCH_PARENT),
+                getChildMeasureSpec(heightMeasureSpec, verticalPadding, LayoutParams.WRAP_CONTENT));
+        setMeasuredDimension(
+                resolveSize(Math.max(mStepViewIndicator.getMeasuredWidth() + horizontalPadding, getSuggestedMinimumWidth()), widthMeasureSpec),
+                resolveSize(Math.max(mStepViewIndicator.getMeasuredHeight() + verticalPadding, getSuggestedMinimumHeight()), heightMeasureSpec));
+    }
+
+    @Override
+    void layoutSteps(boolean changed, int l, int t, int r, int b) {
+        final int left = getPaddingLeft();
+        final int top = getPaddingTop() + mIndicatorMarginTop;
+        mStepViewIndicator.layout(left, top,
+                left + mStepViewIndicator.getMeasuredWidth(), top + mStepViewIndicator.getMeasuredHeight());
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        final int saveCount = canvas.save();
+        canvas.translate(mStepViewIndicator.getLeft(), mStepViewIndicator.getTop());
+        mStepViewIndicator.onDraw(canvas);
+        canvas.restoreToCount(saveCount);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        // The indicator is never attached, so it is not notified itself
+        mStepViewIndicator.mSnapshot.release();
+        mStepViewIndicator.cancelTransitions();
+    }
+
+    @Override
+    protected void positionLabel(@NonNull TextView textView, int labelWidth, float stepCenter, int stepPosition) {
+        // The names of the steps are drawn by the indicator, so there is no TextView to position
+    }
+}
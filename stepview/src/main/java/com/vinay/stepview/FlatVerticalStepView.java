@@ -0,0 +1,36 @@
+package com.vinay.stepview;
+
+import android.content.Context;
+import android.util.AttributeSet;
+
+import com.vinay.stepview.models.Step;
+
+/**
+ * A single-view alternative to {@link VerticalStepView}: displays steps vertically, with the
+ * name/text of the {@link Step} to the right of the {@link android.graphics.drawable.Drawable Drawable}
+ * that represents its state, without any child view.
+ * <p>By default, the steps are displayed in reverse order, but this behaviour can be customized by {@link com.vinay.stepview.StepView#setReverse(boolean)}</p>
+ *
+ * @see FlatStepView
+ */
+public class FlatVerticalStepView extends FlatStepView {
+
+  public FlatVerticalStepView(Context context) {
+    this(context, null);
+  }
+
+  public FlatVerticalStepView(Context context, AttributeSet attrs) {
+    this(context, attrs, R.attr.stepViewStyle);
+  }
+
+  public FlatVerticalStepView(Context context, AttributeSet attrs, int defStyleAttr) {
+    super(context, attrs, defStyleAttr);
+    init(new VerticalStepViewIndicator(context));
+    applyAttributes(attrs, defStyleAttr);
+  }
+
+  @Override
+  protected boolean isVertical() {
+    return true;
+  }
+}
@@ -1,16 +1,15 @@
 package com.vinay.stepview;
 
 import android.content.Context;
-import android.graphics.Typeface;
+import androidx.annotation.NonNull;
 import android.util.AttributeSet;
 import android.util.TypedValue;
-import android.view.View;
+import android.widget.LinearLayout;
+import android.widget.RelativeLayout;
 import android.widget.TextView;
 
 import com.vinay.stepview.models.Step;
 
-import java.util.List;
-
 /**
  * A {@link StepView} that displays steps horizontally, with the name of the {@link Step} below the
  * {@link android.graphics.drawable.Drawable Drawable} that represents its state.
@@ -22,57 +21,76 @@ public class HorizontalStepView extends StepView {
   }
 
   public HorizontalStepView(Context context, AttributeSet attrs) {
-    this(context, attrs, 0);
+    this(context, attrs, R.attr.stepViewStyle);
   }
 
   public HorizontalStepView(Context context, AttributeSet attrs, int defStyleAttr) {
     super(context, attrs, defStyleAttr);
     init();
+    applyAttributes(attrs, defStyleAttr);
   }
 
-  @Override
-  protected void updateView() {
-    List<Float> centerPointPositionList = mStepViewIndicator.getCircleCenterPointPositionList();
-    if (mStepList == null || centerPointPositionList.size() == 0) {
-      return;
-    }
-    if (mStepList.size() != mTextViewList.size()) {
-      return;
-    }
+  /**
+   * Sets whether the HorizontalStepView scrolls horizontally, for steps that do not fit in its width.
+   * <p>
+   * By default, the steps are centered within the width of the view and are clipped when there are
+   * too many of them. A scrollable HorizontalStepView lays out the steps at their natural width and
+   * lets the user drag and fling them. Only the steps in the viewport are drawn, and only those
+   * steps (plus a few on either side) have a label, so the cost of a frame does not depend on the
+   * number of steps. Use {@link #scrollToCurrentStep()} to bring the current step into view.
+   * <p>
+   * A scrollable HorizontalStepView must not be placed in a HorizontalScrollView.
+   * <p>The default value is <code>false</code></p>
+   *
+   * @param isScrollable - Whether the steps can be scrolled
+   * @return The current {@link StepView} instance, for chaining
+   */
+  public StepView setScrollable(boolean isScrollable) {
+    setScrollEnabled(isScrollable);
 
-    for (int i = 0; i < mStepList.size(); i++) {
-      Step step = mStepList.get(i);
-      TextView textView = mTextViewList.get(i);
+    return this;
+  }
 
-      textView.setTextSize(TypedValue.COMPLEX_UNIT_SP, mTextSize);
-      textView.setText(step.getName());
+  /**
+   * Returns whether the HorizontalStepView scrolls horizontally
+   *
+   * @return true if the steps can be scrolled
+   * @see #setScrollable(boolean)
+   */
+  public boolean isScrollable() {
+    return mIsScrollable;
+  }
 
-      final int spec = MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
-      textView.measure(spec, spec);
-      final int measuredWidth = textView.getMeasuredWidth();
-      textView.setX(centerPointPositionList.get(i) - measuredWidth / 2);
-      switch (step.getState()) {
-        case CURRENT:
-          textView.setTypeface(null, Typeface.BOLD);
-          textView.setTextColor(mCurrentStepTextColor);
-          break;
-        case COMPLETED:
-          textView.setTypeface(null, Typeface.NORMAL);
-          textView.setTextColor(mCompletedStepTextColor);
-          break;
-        case NOT_COMPLETED:
-          textView.setTypeface(null, Typeface.NORMAL);
-          textView.setTextColor(mNotCompletedStepTextColor);
-          break;
-      }
-    }
-    mTextContainer.requestLayout();
+  @Override
+  protected boolean isVertical() {
+    return false;
   }
 
+  @Override
+  protected void positionLabel(@NonNull TextView textView, int labelWidth, float stepCenter, int stepPosition) {
+    textView.setX(stepCenter - labelWidth / 2f);
+  }
+
+  /**
+   * Builds the children of the HorizontalStepView, with the same layout params as
+   * <code>R.layout.horizontal_step_view</code>, without inflating it.
+   */
   private void init() {
-    View rootView = inflate(getContext(), R.layout.horizontal_step_view, this);
-    mStepViewIndicator = rootView.findViewById(R.id.steps_indicator);
+    Context context = getContext();
+    LinearLayout rootView = new LinearLayout(context);
+    rootView.setOrientation(VERTICAL);
+
+    mStepViewIndicator = new HorizontalStepViewIndicator(context);
+    mStepViewIndicator.setId(R.id.steps_indicator);
     mStepViewIndicator.setOnUpdateIndicatorListener(this);
-    mTextContainer = rootView.findViewById(R.id.rl_text_container);
+    LinearLayout.LayoutParams indicatorParams = new LinearLayout.LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT);
+    indicatorParams.topMargin = (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 4, getResources().getDisplayMetrics());
+    rootView.addView(mStepViewIndicator, indicatorParams);
+
+    mTextContainer = new RelativeLayout(context);
+    mTextContainer.setId(R.id.rl_text_container);
+    rootView.addView(mTextContainer, new LinearLayout.LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT));
+
+    addView(rootView, new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT));
   }
 }
@@ -2,16 +2,16 @@ package com.vinay.stepview;
 
 import android.content.Context;
 import android.graphics.Canvas;
-import android.graphics.Color;
+import android.graphics.Path;
+import android.graphics.Rect;
+import androidx.annotation.NonNull;
+import android.text.Layout;
 import android.util.AttributeSet;
 
-import com.vinay.stepview.models.Step;
-
 class HorizontalStepViewIndicator extends StepViewIndicator {
 
     private float mCenterY;
-    private float mLeftY;
-    private float mRightY;
+    private int mLabelTop; // Top edge of the labels drawn below the step icons
 
     private int mWidth;
 
@@ -35,9 +35,15 @@ class HorizontalStepViewIndicator extends StepViewIndicator {
         int heightSize = MeasureSpec.getSize(heightMeasureSpec);
 
         int width = DEFAULT_STEP_INDICATOR_DIMENSION * 2;
-        int height = DEFAULT_STEP_INDICATOR_DIMENSION;
+        // The labels, if drawn by the indicator, are drawn in a band below the step icons
+        int height = DEFAULT_STEP_INDICATOR_DIMENSION + getLabelBandHeight();
         if (widthMode == MeasureSpec.EXACTLY) {
             width = widthSize;
+        } else if (widthMode == MeasureSpec.UNSPECIFIED) {
+            // Measured by a scrollable StepView: wide enough for all the steps, with half a line
+            // of margin before the first step and after the last step
+            final float contentWidth = StepLayoutEngine.getContentLength(getNumOfSteps(), mCircleRadius, mLineLength);
+            width = Math.max(width, (int) Math.ceil(contentWidth + mLineLength));
         } else {
             width = Math.min(width, widthSize);
         }
@@ -50,83 +56,96 @@ class HorizontalStepViewIndicator extends StepViewIndicator {
         setMeasuredDimension(width, height);
     }
 
+    @Override
+    boolean computeLayout() {
+        return mLayoutEngine.layout(getNumOfSteps(), mWidth, mCircleRadius, mLineLength, false, true);
+    }
+
+    @Override
+    void setStepDirtyRect(@NonNull Rect outRect, float start, float end) {
+        outRect.set((int) Math.floor(start), (int) Math.floor(mCenterY - mCircleRadius),
+                (int) Math.ceil(end), (int) Math.ceil(mCenterY + mCircleRadius));
+    }
+
     @Override
     protected void onSizeChanged(int w, int h, int oldW, int oldH) {
         super.onSizeChanged(w, h, oldW, oldH);
-        mCenterY = 0.5f * getHeight();
-        mLeftY = mCenterY - (mCompletedLineHeight / 2);
-        mRightY = mCenterY + mCompletedLineHeight / 2;
-
-        mCircleCenterPointPositionList.clear();
-        final int numSteps = getNumOfSteps();
-        for (int i = 0; i < numSteps; i++) {
-            float paddingLeft = (mWidth - numSteps * mCircleRadius * 2 - (numSteps - 1) * mLineLength) / 2;
-            mCircleCenterPointPositionList.add(paddingLeft + mCircleRadius + i * mCircleRadius * 2 + i * mLineLength);
-        }
+        updateLayout();
+    }
 
-        if (mUpdateIndicatorListener != null) {
-            mUpdateIndicatorListener.onIndicatorUpdated();
-        }
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        super.onLayout(changed, left, top, right, bottom);
+        // The height of the label band may change without the size of the view changing
+        mLabelTop = getHeight() - getLabelBandHeight();
+        mCenterY = 0.5f * mLabelTop;
+        mLinesDirty = true;
     }
 
     @Override
-    protected synchronized void onDraw(Canvas canvas) {
-        super.onDraw(canvas);
-
-        mCircleCenterPointPositionList.clear();
-        final int numSteps = getNumOfSteps();
-        for (int i = 0; i < numSteps; i++) {
-            float paddingLeft = (mWidth - numSteps * mCircleRadius * 2 - (numSteps - 1) * mLineLength) / 2;
-            mCircleCenterPointPositionList.add(paddingLeft + mCircleRadius + i * mCircleRadius * 2 + i * mLineLength);
-        }
-        if (mUpdateIndicatorListener != null) {
-            mUpdateIndicatorListener.onIndicatorUpdated();
-        }
+    void setSolidLine(@NonNull float[] points, int offset, float start, float end) {
+        points[offset] = start;
+        points[offset + 1] = mCenterY;
+        points[offset + 2] = end;
+        points[offset + 3] = mCenterY;
+    }
+
+    @Override
+    void addDashedLine(@NonNull Path path, float start, float end) {
+        path.moveTo(start, mCenterY);
+        path.lineTo(end, mCenterY);
+    }
+
+    /**
+     * Returns the height of the band below the step icons in which the labels are drawn
+     *
+     * @return Height, in pixels, or zero if the labels are not drawn by the indicator
+     */
+    private int getLabelBandHeight() {
+        return mLabelRenderer == null ? 0 : mLabelRenderer.getLineHeight();
+    }
+
+    @Override
+    void drawSteps(@NonNull Canvas canvas) {
         mNotCompletedLinePaint.setColor(mNotCompletedLineColor);
         mCompletedLinePaint.setColor(mCompletedLineColor);
 
-        // Draw line from step circle to the next, customizing the line styling based on the step state
-        for (int i = 0; i < mCircleCenterPointPositionList.size() - 1; i++) {
-            // Centre coordinate of the current step's circle
-            final float stepXPosition = mCircleCenterPointPositionList.get(i);
-            // Centre coordinate of the next step's circle
-            final float nextStepXPosition = mCircleCenterPointPositionList.get(i + 1);
-
-            if (mStepList.get(i + 1).getState() == Step.State.COMPLETED) {
-                canvas.drawRect(stepXPosition + mCircleRadius - 10, mLeftY, nextStepXPosition - mCircleRadius + 10, mRightY, mCompletedLinePaint);
-            } else {
-                if (mNotCompletedLineType) {
-                    mPath.moveTo(stepXPosition + mCircleRadius, mCenterY);
-                    mPath.lineTo(nextStepXPosition - mCircleRadius, mCenterY);
-                    canvas.drawPath(mPath, mNotCompletedLinePaint);
-                } else {
-                    canvas.drawRect(stepXPosition + mCircleRadius - 10, mLeftY, nextStepXPosition - mCircleRadius + 10, mRightY, mNotCompletedLinePaint);
-                }
-            }
+        // Draw the lines from each step circle to the next, in one call per line style
+        final StepLayoutEngine layout = mLayoutEngine;
+        computeDrawnRange();
+        updateLines();
+        drawLines(canvas);
+
+        // Draw Step icons, rasterized at the size of the step circles
+        resolveStepIcons();
+        for (int i = mFirstDrawnStep; i <= mLastDrawnStep; i++) {
+            drawStepIcon(canvas, i);
         }
 
-        // Draw Step icons
-        for (int i = 0; i < mCircleCenterPointPositionList.size(); i++) {
-            final float stepXPosition = mCircleCenterPointPositionList.get(i);
-            mRect.set((int) (stepXPosition - mCircleRadius), (int) (mCenterY - mCircleRadius), (int) (stepXPosition + mCircleRadius), (int) (mCenterY + mCircleRadius));
-
-            Step step = mStepList.get(i);
-
-            switch (step.getState()) {
-                case NOT_COMPLETED:
-                    mNotCompletedStepIcon.setBounds(mRect);
-                    mNotCompletedStepIcon.draw(canvas);
-                    break;
-                case CURRENT:
-                    mCompletedLinePaint.setColor(Color.WHITE);
-                    mCurrentStepIcon.setBounds(mRect);
-                    mCurrentStepIcon.draw(canvas);
-                    break;
-                case COMPLETED:
-                    mCompletedStepIcon.setBounds(mRect);
-                    mCompletedStepIcon.draw(canvas);
-                    break;
+        // Draw the labels centered below the step icons. A label may be wider than the pitch of the
+        // steps, so the labels of the steps just outside the viewport are drawn as well
+        if (mLabelRenderer != null) {
+            final int lastLabel = Math.min(mLastDrawnStep + 1, layout.getStepCount() - 1);
+            for (int i = Math.max(mFirstDrawnStep - 1, 0); i <= lastLabel; i++) {
+                drawStepLabel(canvas, i);
             }
         }
     }
+
+    @Override
+    void drawStepIcon(@NonNull Canvas canvas, int stepPosition) {
+        final float iconOffset = mIconSize / 2f;
+        drawStepIcon(canvas, stepPosition,
+                (int) (mLayoutEngine.getCenter(stepPosition) - iconOffset), (int) (mCenterY - iconOffset));
+    }
+
+    @Override
+    float getLabelLeft(int stepPosition, @NonNull Layout labelLayout) {
+        return mLayoutEngine.getLabelStart(stepPosition, labelLayout.getWidth());
+    }
+
+    @Override
+    float getLabelTop(int stepPosition, @NonNull Layout labelLayout) {
+        return mLabelTop;
+    }
 }
@@ -0,0 +1,202 @@
+package com.vinay.stepview;
+
+import android.content.res.Configuration;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.os.Build;
+import android.text.BoringLayout;
+import android.text.Layout;
+import android.text.TextPaint;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+
+/**
+ * Measures the labels of the steps, and remembers the result in a bounded cache shared by all
+ * StepViews.
+ * <p>
+ * The same step names are typically displayed by many StepViews (e.g. in every row of a list), so
+ * measuring a label is usually a hash lookup rather than a text layout pass. Measurements are
+ * keyed by text, text size, typeface, locale and font scale, and the whole cache is discarded when
+ * the configuration of the device changes (see {@link #onConfigurationChanged(Configuration)}).
+ * <p>
+ * The measured size is the size of a {@link android.widget.TextView} without padding, measured
+ * with {@link android.view.View.MeasureSpec#UNSPECIFIED} width and height.
+ * <p>
+ * All methods must be called on the main thread.
+ */
+final class LabelMeasureCache {
+
+    /**
+     * Maximum number of measurements kept in the cache
+     */
+    private static final int MAX_CACHED_MEASUREMENTS = 512;
+
+    private static final LruCache<MeasureKey, LabelSize> sCache = new LruCache<>(MAX_CACHED_MEASUREMENTS);
+
+    /**
+     * Key reused for lookups, so that a cache hit does not allocate
+     */
+    private static final MeasureKey sLookupKey = new MeasureKey();
+
+    private static final TextPaint sPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+
+    private static int sMeasureCount; // Number of texts measured, as opposed to found in the cache
+
+    private static float sFontScale;
+    private static Locale sLocale;
+    private static int sDensityDpi;
+
+    private LabelMeasureCache() {
+    }
+
+    /**
+     * Returns the size of a label, measuring it if it is not in the cache
+     *
+     * @param text       Text of the label
+     * @param textSizePx Text size, in pixels
+     * @param typeface   Typeface of the label
+     * @param locale     Locale of the text
+     * @param fontScale  Font scale of the current configuration
+     * @return Size of the label. The returned instance is shared and immutable.
+     */
+    @NonNull
+    static LabelSize measure(@NonNull String text, float textSizePx, @NonNull Typeface typeface,
+                             @NonNull Locale locale, float fontScale) {
+        sLookupKey.set(text, textSizePx, typeface, locale, fontScale);
+        LabelSize size = sCache.get(sLookupKey);
+        if (size == null) {
+            size = measureText(text, textSizePx, typeface, locale);
+            sMeasureCount++;
+            MeasureKey key = new MeasureKey();
+            key.set(text, textSizePx, typeface, locale, fontScale);
+            sCache.put(key, size);
+        }
+        return size;
+    }
+
+    /**
+     * Returns the number of texts measured since the process started, as opposed to found in the
+     * cache. The difference between two calls is the number of measurements made in between.
+     *
+     * @return Number of texts measured
+     */
+    static int getMeasureCount() {
+        return sMeasureCount;
+    }
+
+    /**
+     * Discards all the measurements if the font scale, locale or density of the given configuration
+     * differs from the configuration the labels were last measured with.
+     *
+     * @param configuration The new configuration
+     * @return true if the cache was cleared, in which case all the labels must be measured again
+     */
+    static boolean onConfigurationChanged(@NonNull Configuration configuration) {
+        final Locale locale = getLocale(configuration);
+        if (sFontScale == configuration.fontScale
+                && sDensityDpi == configuration.densityDpi
+                && (sLocale == null ? locale == null : sLocale.equals(locale))) {
+            return false;
+        }
+        sFontScale = configuration.fontScale;
+        sDensityDpi = configuration.densityDpi;
+        sLocale = locale;
+        sCache.evictAll();
+        return true;
+    }
+
+    /**
+     * Returns the primary locale of the given configuration
+     *
+     * @param configuration The configuration
+     * @return The first locale of the configuration
+     */
+    @SuppressWarnings("deprecation") // Configuration.locale is only read below API 24
+    static Locale getLocale(@NonNull Configuration configuration) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            return configuration.getLocales().get(0);
+        }
+        return configuration.locale;
+    }
+
+    private static LabelSize measureText(String text, float textSizePx, Typeface typeface, Locale locale) {
+        final TextPaint paint = sPaint;
+        paint.setTextSize(textSizePx);
+        paint.setTypeface(typeface);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            paint.setTextLocale(locale);
+        }
+
+        // Same as a TextView with includeFontPadding = true, the default
+        BoringLayout.Metrics metrics = BoringLayout.isBoring(text, paint);
+        if (metrics != null) {
+            return new LabelSize(metrics.width, metrics.bottom - metrics.top);
+        }
+        final int width = (int) Math.ceil(Layout.getDesiredWidth(text, paint));
+        Layout layout = StepLabelRenderer.createStaticLayout(text, paint, width);
+        return new LabelSize(layout.getWidth(), layout.getHeight());
+    }
+
+    /**
+     * Measured size of a label, in pixels
+     */
+    static final class LabelSize {
+        final int width;
+        final int height;
+
+        LabelSize(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    /**
+     * Key of the cache. Instances stored in the cache are never modified.
+     */
+    private static final class MeasureKey {
+        String text;
+        float textSize;
+        Typeface typeface;
+        Locale locale;
+        float fontScale;
+        private int mHashCode;
+
+        void set(String text, float textSize, Typeface typeface, Locale locale, float fontScale) {
+            this.text = text;
+            this.textSize = textSize;
+            this.typeface = typeface;
+            this.locale = locale;
+            this.fontScale = fontScale;
+            int hashCode = text.hashCode();
+            hashCode = 31 * hashCode + Float.floatToIntBits(textSize);
+            hashCode = 31 * hashCode + typeface.hashCode();
+            hashCode = 31 * hashCode + locale.hashCode();
+            hashCode = 31 * hashCode + Float.floatToIntBits(fontScale);
+            mHashCode = hashCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MeasureKey)) {
+                return false;
+            }
+            MeasureKey other = (MeasureKey) o;
+            return textSize == other.textSize
+                    && fontScale == other.fontScale
+                    && typeface == other.typeface
+                    && locale.equals(other.locale)
+                    && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHashCode;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.vinay.stepview;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.graphics.drawable.Animatable;
+import android.graphics.drawable.Drawable;
+import android.util.LruCache;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.content.res.AppCompatResources;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Rasterizes the icons of the steps at the size at which they are drawn, and shares the
+ * bitmaps of icon resources between all the indicators.
+ * <p>
+ * Icon resources (the default icons, or icons set in XML) are keyed by resource, size, theme,
+ * density and UI mode, and only inflated when their bitmap is not in the cache. The cache only
+ * holds a weak reference to the theme, so it does not keep a {@link Context} alive.
+ * <p>
+ * {@link Drawable}s set by the application are not shared: the application may change their
+ * tint, level or state at any time, so each indicator rasterizes its own. See {@link #isLive(Drawable)}.
+ * <p>
+ * The bitmaps of the cache are shared, so they must never be modified. All methods must be
+ * called on the main thread.
+ */
+final class StepIconCache {
+
+    /**
+     * Maximum size, in bytes, of the bitmaps kept in the cache
+     */
+    private static final int MAX_CACHE_BYTES = 2 * 1024 * 1024;
+
+    private static final LruCache<IconKey, Bitmap> sCache = new LruCache<IconKey, Bitmap>(MAX_CACHE_BYTES) {
+        @Override
+        protected int sizeOf(IconKey key, Bitmap value) {
+            return value.getByteCount();
+        }
+    };
+
+    private StepIconCache() {
+    }
+
+    /**
+     * Returns the bitmap of an icon resource, rasterizing it if it is not in the cache
+     *
+     * @param context Context used to inflate the icon resource
+     * @param resId   Resource of the icon
+     * @param size    Width and height of the icon, in pixels
+     * @return Bitmap of the icon, which must not be modified
+     */
+    @NonNull
+    static Bitmap getIcon(@NonNull Context context, @DrawableRes int resId, int size) {
+        final IconKey key = new IconKey(context, resId, size);
+        Bitmap icon = sCache.get(key);
+        if (icon == null) {
+            icon = rasterize(AppCompatResources.getDrawable(context, resId), size, null);
+            sCache.put(key, icon);
+        }
+        return icon;
+    }
+
+    /**
+     * Returns whether a drawable may look different every time it is drawn, in which case it
+     * must be rasterized again on every draw rather than once
+     *
+     * @param drawable The drawable
+     * @return true if the drawable depends on a state or is animated
+     */
+    static boolean isLive(@NonNull Drawable drawable) {
+        return drawable.isStateful() || drawable instanceof Animatable;
+    }
+
+    /**
+     * Draws a drawable into a bitmap
+     *
+     * @param drawable The drawable
+     * @param size     Width and height of the bitmap, in pixels
+     * @param reuse    Bitmap of the same size to draw into, or null to create one. It must not be
+     *                 a bitmap of the cache.
+     * @return The bitmap the drawable was drawn into
+     */
+    @NonNull
+    static Bitmap rasterize(@NonNull Drawable drawable, int size, @Nullable Bitmap reuse) {
+        final Bitmap icon;
+        if (reuse != null) {
+            icon = reuse;
+            icon.eraseColor(Color.TRANSPARENT);
+        } else {
+            icon = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        }
+        // The drawable may be displayed elsewhere, so its bounds are restored
+        final Rect bounds = drawable.copyBounds();
+        drawable.setBounds(0, 0, size, size);
+        drawable.draw(new Canvas(icon));
+        drawable.setBounds(bounds);
+        return icon;
+    }
+
+    /**
+     * Key of the cache
+     */
+    private static final class IconKey {
+        final int resId;
+        final int size;
+        final WeakReference<Resources.Theme> theme; // Theme the icon was inflated with
+        final int densityDpi;
+        final int uiMode; // Night mode, in particular
+        private final int mHashCode;
+
+        IconKey(Context context, int resId, int size) {
+            final Configuration configuration = context.getResources().getConfiguration();
+            final Resources.Theme theme = context.getTheme();
+            this.resId = resId;
+            this.size = size;
+            this.theme = new WeakReference<>(theme);
+            this.densityDpi = configuration.densityDpi;
+            this.uiMode = configuration.uiMode;
+            int hashCode = resId;
+            hashCode = 31 * hashCode + size;
+            hashCode = 31 * hashCode + System.identityHashCode(theme);
+            hashCode = 31 * hashCode + densityDpi;
+            hashCode = 31 * hashCode + uiMode;
+            mHashCode = hashCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof IconKey)) {
+                return false;
+            }
+            IconKey other = (IconKey) o;
+            // A key whose theme was garbage collected matches no other key, and is eventually evicted
+            final Resources.Theme theme = this.theme.get();
+            return resId == other.resId
+                    && size == other.size
+                    && densityDpi == other.densityDpi
+                    && uiMode == other.uiMode
+                    && theme != null
+                    && theme == other.theme.get();
+        }
+
+        @Override
+        public int hashCode() {
+            return mHashCode;
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.vinay.stepview;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.os.Build;
+import android.text.BoringLayout;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+
+import com.vinay.stepview.models.Step;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Draws the names of the steps directly on the canvas of a {@link StepViewIndicator}, as an
+ * alternative to one {@link android.widget.TextView} per step.
+ * <p>
+ * The text of each label is laid out once into a {@link BoringLayout} (or a {@link StaticLayout}
+ * when the text is not a single line of simple text). Layouts are kept in a cache shared by all
+ * StepViews and keyed by text, size, typeface and color, so that StepViews displaying the same
+ * steps share the same layouts. Each renderer additionally remembers the layout of each step,
+ * so drawing a frame does not even require a cache lookup.
+ * <p>
+ * All methods must be called on the main thread.
+ */
+final class StepLabelRenderer {
+
+    /**
+     * Maximum number of layouts kept in the shared cache
+     */
+    private static final int MAX_CACHED_LAYOUTS = 256;
+
+    private static final LruCache<LabelKey, Layout> sLayoutCache = new LruCache<>(MAX_CACHED_LAYOUTS);
+
+    private float mTextSize; // Text size, in pixels
+    private int mNotCompletedTextColor;
+    private int mCompletedTextColor;
+    private int mCurrentTextColor;
+    private int mLineHeight; // Height of a single line of text, in pixels
+
+    private Layout[] mStepLayouts = new Layout[0]; // Layout of each step, or null if it must be resolved
+
+    // Labels bound since the last call to resetBindStats(), see StepViewMetrics
+    private boolean mIsBindTimingEnabled;
+    private int mBoundLabelCount; // Number of layouts resolved
+    private int mMeasuredTextCount; // Number of layouts created, as opposed to found in the shared cache
+    private long mBindNanos; // Time spent resolving layouts, if timing is enabled
+
+    /**
+     * Sets the size and colors of the labels. All the labels are laid out again if any of them changed.
+     *
+     * @param textSizePx            Text size, in pixels
+     * @param notCompletedTextColor Text color of not-completed steps
+     * @param completedTextColor    Text color of completed steps
+     * @param currentTextColor      Text color of the current step
+     * @return true if the text size changed, in which case the indicator must be measured again
+     */
+    boolean setStyle(float textSizePx, int notCompletedTextColor, int completedTextColor, int currentTextColor) {
+        final boolean sizeChanged = mTextSize != textSizePx;
+        if (sizeChanged
+                || mNotCompletedTextColor != notCompletedTextColor
+                || mCompletedTextColor != completedTextColor
+                || mCurrentTextColor != currentTextColor) {
+            mTextSize = textSizePx;
+            mNotCompletedTextColor = notCompletedTextColor;
+            mCompletedTextColor = completedTextColor;
+            mCurrentTextColor = currentTextColor;
+            invalidateAll();
+        }
+        if (sizeChanged) {
+            TextPaint paint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+            paint.setTextSize(textSizePx);
+            paint.setTypeface(Typeface.DEFAULT_BOLD);
+            Paint.FontMetricsInt fontMetrics = paint.getFontMetricsInt();
+            mLineHeight = fontMetrics.bottom - fontMetrics.top;
+        }
+        return sizeChanged;
+    }
+
+    /**
+     * Returns the height of a single-line label
+     *
+     * @return Line height, in pixels
+     */
+    int getLineHeight() {
+        return mLineHeight;
+    }
+
+    /**
+     * Discards the layouts of all the steps, which are resolved again when they are next drawn
+     */
+    void invalidateAll() {
+        Arrays.fill(mStepLayouts, null);
+    }
+
+    /**
+     * Discards the layout of the step at the given position
+     *
+     * @param stepPosition Position of the step whose name or state changed
+     */
+    void invalidateStep(int stepPosition) {
+        if (stepPosition < mStepLayouts.length) {
+            mStepLayouts[stepPosition] = null;
+        }
+    }
+
+    /**
+     * Returns the layout of the label of the given step, resolving it from the shared cache if needed
+     *
+     * @param steps        The list of steps
+     * @param stepPosition Position of the step
+     * @return Layout of the label
+     */
+    @NonNull
+    Layout getLayout(@NonNull List<Step> steps, int stepPosition) {
+        if (stepPosition >= mStepLayouts.length) {
+            Layout[] stepLayouts = new Layout[Math.max(stepPosition + 1, mStepLayouts.length * 2)];
+            System.arraycopy(mStepLayouts, 0, stepLayouts, 0, mStepLayouts.length);
+            mStepLayouts = stepLayouts;
+        }
+        Layout layout = mStepLayouts[stepPosition];
+        if (layout == null) {
+            final long startNanos = mIsBindTimingEnabled ? System.nanoTime() : 0;
+            layout = obtainLayout(StepListAccess.getName(steps, stepPosition), StepListAccess.getState(steps, stepPosition));
+            mStepLayouts[stepPosition] = layout;
+            mBoundLabelCount++;
+            if (mIsBindTimingEnabled) {
+                mBindNanos += System.nanoTime() - startNanos;
+            }
+        }
+        return layout;
+    }
+
+    /**
+     * Returns the layout of a label with the given name, styled for the given state. Unlike
+     * {@link #getLayout(List, int)}, the layout is not remembered, so this is meant for labels that
+     * are not in the state of their step, e.g. while a step is animated from one state to another.
+     *
+     * @param name  Name of the step
+     * @param state State the label is styled for
+     * @return Layout of the label
+     */
+    @NonNull
+    Layout getLayout(@NonNull String name, @NonNull Step.State state) {
+        return obtainLayout(name, state);
+    }
+
+    /**
+     * Sets whether the time spent resolving the layouts of the labels is measured
+     *
+     * @param isBindTimingEnabled Whether bindings are timed, see {@link #getBindNanos()}
+     */
+    void setBindTimingEnabled(boolean isBindTimingEnabled) {
+        mIsBindTimingEnabled = isBindTimingEnabled;
+    }
+
+    /**
+     * Returns the number of labels whose layout was resolved since the last call to {@link #resetBindStats()}
+     *
+     * @return Number of labels bound
+     */
+    int getBoundLabelCount() {
+        return mBoundLabelCount;
+    }
+
+    /**
+     * Returns the number of labels whose layout was created rather than found in the shared cache,
+     * since the last call to {@link #resetBindStats()}
+     *
+     * @return Number of texts laid out
+     */
+    int getMeasuredTextCount() {
+        return mMeasuredTextCount;
+    }
+
+    /**
+     * Returns the time spent resolving the layouts of the labels since the last call to
+     * {@link #resetBindStats()}, or 0 if bindings are not timed
+     *
+     * @return Duration, in nanoseconds
+     */
+    long getBindNanos() {
+        return mBindNanos;
+    }
+
+    /**
+     * Resets the number and duration of the bindings
+     */
+    void resetBindStats() {
+        mBoundLabelCount = 0;
+        mMeasuredTextCount = 0;
+        mBindNanos = 0;
+    }
+
+    /**
+     * Draws a label with its top-left corner at the given coordinates
+     *
+     * @param canvas Canvas to draw on
+     * @param layout Layout of the label, see {@link #getLayout(List, int)}
+     * @param left   Left edge of the label, in pixels
+     * @param top    Top edge of the label, in pixels
+     */
+    void draw(@NonNull Canvas canvas, @NonNull Layout layout, float left, float top) {
+        final int saveCount = canvas.save();
+        canvas.translate(left, top);
+        layout.draw(canvas);
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * Draws a label with its top-left corner at the given coordinates, with its opacity multiplied
+     * by the given factor. The paint of the layout, which is shared, is restored afterwards.
+     *
+     * @param canvas Canvas to draw on
+     * @param layout Layout of the label
+     * @param left   Left edge of the label, in pixels
+     * @param top    Top edge of the label, in pixels
+     * @param alpha  Opacity factor, from 0 (transparent) to 1 (unchanged)
+     */
+    void draw(@NonNull Canvas canvas, @NonNull Layout layout, float left, float top, float alpha) {
+        final TextPaint paint = layout.getPaint();
+        final int paintAlpha = paint.getAlpha();
+        paint.setAlpha(Math.round(paintAlpha * alpha));
+        draw(canvas, layout, left, top);
+        paint.setAlpha(paintAlpha);
+    }
+
+    private Layout obtainLayout(String name, Step.State state) {
+        final Typeface typeface = state == Step.State.CURRENT ? Typeface.DEFAULT_BOLD : Typeface.DEFAULT;
+        final LabelKey key = new LabelKey(name, mTextSize, typeface, getTextColor(state));
+        Layout layout = sLayoutCache.get(key);
+        if (layout == null) {
+            layout = createLayout(key);
+            sLayoutCache.put(key, layout);
+            mMeasuredTextCount++;
+        }
+        return layout;
+    }
+
+    private int getTextColor(Step.State state) {
+        switch (state) {
+            case CURRENT:
+                return mCurrentTextColor;
+            case COMPLETED:
+                return mCompletedTextColor;
+            default:
+                return mNotCompletedTextColor;
+        }
+    }
+
+    private static Layout createLayout(LabelKey key) {
+        TextPaint paint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        paint.setTextSize(key.textSize);
+        paint.setTypeface(key.typeface);
+        paint.setColor(key.color);
+
+        BoringLayout.Metrics metrics = BoringLayout.isBoring(key.text, paint);
+        if (metrics != null) {
+            return BoringLayout.make(key.text, paint, metrics.width, Layout.Alignment.ALIGN_NORMAL, 1f, 0f, metrics, true);
+        }
+        final int width = (int) Math.ceil(Layout.getDesiredWidth(key.text, paint));
+        return createStaticLayout(key.text, paint, width);
+    }
+
+    /**
+     * Lays out a text that does not fit a {@link BoringLayout}, with the same alignment, spacing
+     * and padding as a BoringLayout
+     *
+     * @param text  Text to lay out
+     * @param paint Paint of the text
+     * @param width Width of the layout, in pixels
+     * @return The layout
+     */
+    @NonNull
+    @SuppressWarnings("deprecation") // The StaticLayout constructor is only used below API 23
+    static StaticLayout createStaticLayout(@NonNull CharSequence text, @NonNull TextPaint paint, int width) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            return StaticLayout.Builder.obtain(text, 0, text.length(), paint, width)
+                    .setAlignment(Layout.Alignment.ALIGN_NORMAL)
+                    .setLineSpacing(0f, 1f)
+                    .setIncludePad(true)
+                    .build();
+        }
+        return new StaticLayout(text, paint, width, Layout.Alignment.ALIGN_NORMAL, 1f, 0f, true);
+    }
+
+    /**
+     * Key of the shared layout cache
+     */
+    private static final class LabelKey {
+        final String text;
+        final float textSize;
+        final Typeface typeface;
+        final int color;
+        private final int mHashCode;
+
+        LabelKey(String text, float textSize, Typeface typeface, int color) {
+            this.text = text;
+            this.textSize = textSize;
+            this.typeface = typeface;
+            this.color = color;
+            int hashCode = text.hashCode();
+            hashCode = 31 * hashCode + Float.floatToIntBits(textSize);
+            hashCode = 31 * hashCode + (typeface == null ? 0 : typeface.hashCode());
+            hashCode = 31 * hashCode + color;
+            mHashCode = hashCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof LabelKey)) {
+                return false;
+            }
+            LabelKey other = (LabelKey) o;
+            return textSize == other.textSize
+                    && color == other.color
+                    && typeface == other.typeface
+                    && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHashCode;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.vinay.stepview;
+
+/**
+ * Computes the geometry of a row (or column) of steps along the main axis of a
+ * {@link StepViewIndicator}: the center of each step circle and the start/end of each connector
+ * line between two consecutive steps.
+ * <p>
+ * The engine does not depend on any Android class. Results are written into primitive
+ * <code>float</code> buffers that are only recomputed when one of the inputs passed to
+ * {@link #layout(int, float, float, float, boolean, boolean)} changes, so that the indicators can
+ * read them on every frame without arithmetic or allocation.
+ * <p>
+ * The buffers returned by the accessors are owned by the engine and must be treated as read-only.
+ * They may be larger than the number of steps; only the first {@link #getStepCount()} centers and
+ * the first {@link #getLineCount()} lines are valid.
+ */
+final class StepLayoutEngine {
+
+    private static final float[] EMPTY = new float[0];
+
+    private int mStepCount;
+    private float mSize;
+    private float mRadius;
+    private float mLineLength;
+    private boolean mIsReverse;
+    private boolean mIsCentered;
+
+    private boolean mHasLayout;
+    private int mVersion;
+
+    private float[] mCenters = EMPTY; // Center of each step circle, along the main axis
+    private float[] mLineStarts = EMPTY; // Lower coordinate of each connector line
+    private float[] mLineEnds = EMPTY; // Higher coordinate of each connector line
+
+    /**
+     * Recomputes the geometry if any of the inputs differ from the previous call.
+     *
+     * @param stepCount  Number of steps
+     * @param size       Length of the main axis of the view, in pixels
+     * @param radius     Radius of a step circle, in pixels
+     * @param lineLength Length of the line between two step circles, in pixels
+     * @param reverse    Whether the first step is placed at the end of the main axis
+     * @param centered   Whether the steps are centered along the main axis. When false, the steps
+     *                   start at the beginning (or the end, if reversed) of the main axis
+     * @return true if the geometry was recomputed, false if the cached geometry is still valid
+     */
+    boolean layout(int stepCount, float size, float radius, float lineLength, boolean reverse, boolean centered) {
+        if (mHasLayout
+                && mStepCount == stepCount
+                && mSize == size
+                && mRadius == radius
+                && mLineLength == lineLength
+                && mIsReverse == reverse
+                && mIsCentered == centered) {
+            return false;
+        }
+        mStepCount = Math.max(stepCount, 0);
+        mSize = size;
+        mRadius = radius;
+        mLineLength = lineLength;
+        mIsReverse = reverse;
+        mIsCentered = centered;
+        mHasLayout = true;
+        mVersion++;
+
+        ensureCapacity(mStepCount);
+
+        final float start = centered ? (size - getContentLength()) / 2 : 0;
+        final float pitch = radius * 2 + lineLength; // Distance between the centers of two steps
+        for (int i = 0; i < mStepCount; i++) {
+            final float offset = start + radius + i * pitch;
+            mCenters[i] = reverse ? size - offset : offset;
+        }
+        for (int i = 0; i < mStepCount - 1; i++) {
+            final float current = mCenters[i];
+            final float next = mCenters[i + 1];
+            mLineStarts[i] = Math.min(current, next) + radius;
+            mLineEnds[i] = Math.max(current, next) - radius;
+        }
+        return true;
+    }
+
+    /**
+     * Discards the cached geometry, so that the next call to
+     * {@link #layout(int, float, float, float, boolean, boolean)} recomputes it.
+     */
+    void invalidate() {
+        mHasLayout = false;
+    }
+
+    /**
+     * Returns a counter that is incremented every time the geometry is recomputed.
+     * Consumers can compare it against a previously seen value to detect changes.
+     *
+     * @return Geometry version
+     */
+    int getVersion() {
+        return mVersion;
+    }
+
+    /**
+     * Returns the number of steps of the current layout
+     *
+     * @return Number of steps
+     */
+    int getStepCount() {
+        return mStepCount;
+    }
+
+    /**
+     * Returns the number of connector lines of the current layout
+     *
+     * @return Number of lines, which is one less than the number of steps (or zero)
+     */
+    int getLineCount() {
+        return mStepCount > 0 ? mStepCount - 1 : 0;
+    }
+
+    /**
+     * Returns the radius of a step circle used by the current layout
+     *
+     * @return Radius, in pixels
+     */
+    float getRadius() {
+        return mRadius;
+    }
+
+    /**
+     * Returns the distance between the centers of two consecutive steps
+     *
+     * @return Distance, in pixels
+     */
+    float getPitch() {
+        return mRadius * 2 + mLineLength;
+    }
+
+    /**
+     * Returns the position of the step whose center is the closest to the given coordinate.
+     * Coordinates before the first step or after the last step map to the first or last step.
+     *
+     * @param position Coordinate along the main axis, in pixels
+     * @return Position of the step, or -1 if there are no steps
+     */
+    int getStepAt(float position) {
+        if (mStepCount == 0) {
+            return -1;
+        }
+        final float pitch = getPitch();
+        if (pitch <= 0) {
+            return 0;
+        }
+        final float offset = mIsReverse ? mCenters[0] - position : position - mCenters[0];
+        final int stepPosition = Math.round(offset / pitch);
+        return Math.max(0, Math.min(stepPosition, mStepCount - 1));
+    }
+
+    /**
+     * Returns the length along the main axis occupied by all the steps and lines
+     *
+     * @return Content length, in pixels
+     */
+    float getContentLength() {
+        return getContentLength(mStepCount, mRadius, mLineLength);
+    }
+
+    /**
+     * Returns the center of the circle of the step at the given position
+     *
+     * @param stepPosition Position of the step
+     * @return Center coordinate along the main axis, in pixels
+     */
+    float getCenter(int stepPosition) {
+        return mCenters[stepPosition];
+    }
+
+    /**
+     * Returns the start (lower coordinate) of the line between the step at the given position and the next step
+     *
+     * @param linePosition Position of the line, which is the position of the step it starts from
+     * @return Start coordinate along the main axis, in pixels
+     */
+    float getLineStart(int linePosition) {
+        return mLineStarts[linePosition];
+    }
+
+    /**
+     * Returns the end (higher coordinate) of the line between the step at the given position and the next step
+     *
+     * @param linePosition Position of the line, which is the position of the step it starts from
+     * @return End coordinate along the main axis, in pixels
+     */
+    float getLineEnd(int linePosition) {
+        return mLineEnds[linePosition];
+    }
+
+    /**
+     * Returns the coordinate at which a label of the given extent must start to be centered on
+     * the step at the given position
+     *
+     * @param stepPosition Position of the step
+     * @param labelExtent  Length of the label along the main axis, in pixels
+     * @return Start coordinate of the label along the main axis, in pixels
+     */
+    float getLabelStart(int stepPosition, float labelExtent) {
+        return mCenters[stepPosition] - labelExtent / 2;
+    }
+
+    /**
+     * Returns the centers of all step circles. The returned buffer must not be modified.
+     *
+     * @return Buffer of center coordinates
+     */
+    float[] getCenters() {
+        return mCenters;
+    }
+
+    /**
+     * Returns the length along the main axis occupied by the given number of steps and lines
+     *
+     * @param stepCount  Number of steps
+     * @param radius     Radius of a step circle, in pixels
+     * @param lineLength Length of the line between two step circles, in pixels
+     * @return Content length, in pixels
+     */
+    static float getContentLength(int stepCount, float radius, float lineLength) {
+        if (stepCount <= 0) {
+            return 0;
+        }
+        return stepCount * radius * 2 + (stepCount - 1) * lineLength;
+    }
+
+    private void ensureCapacity(int stepCount) {
+        if (mCenters.length < stepCount) {
+            mCenters = new float[stepCount];
+            mLineStarts = new float[stepCount];
+            mLineEnds = new float[stepCount];
+        }
+    }
+}
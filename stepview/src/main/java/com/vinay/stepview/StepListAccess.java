@@ -0,0 +1,53 @@
+package com.vinay.stepview;
+
+import androidx.annotation.NonNull;
+
+import com.vinay.stepview.models.Step;
+import com.vinay.stepview.models.StepList;
+import com.vinay.stepview.models.StepStateBuffer;
+
+import java.util.List;
+
+/**
+ * Reads the name, state and progress of the steps of a list of steps. The steps of a
+ * {@link StepStateBuffer} are read from its arrays, and those of a {@link StepList} from its
+ * immutable steps, without creating a {@link Step} for each of them, so the StepView and its
+ * indicator read every list of steps through these methods.
+ */
+final class StepListAccess {
+
+    private StepListAccess() {
+    }
+
+    @NonNull
+    static String getName(@NonNull List<Step> steps, int stepPosition) {
+        if (steps instanceof StepStateBuffer) {
+            return ((StepStateBuffer) steps).getName(stepPosition);
+        }
+        if (steps instanceof StepList) {
+            return ((StepList) steps).getImmutableStep(stepPosition).getName();
+        }
+        return steps.get(stepPosition).getName();
+    }
+
+    @NonNull
+    static Step.State getState(@NonNull List<Step> steps, int stepPosition) {
+        if (steps instanceof StepStateBuffer) {
+            return ((StepStateBuffer) steps).getState(stepPosition);
+        }
+        if (steps instanceof StepList) {
+            return ((StepList) steps).getImmutableStep(stepPosition).getState();
+        }
+        return steps.get(stepPosition).getState();
+    }
+
+    static float getProgress(@NonNull List<Step> steps, int stepPosition) {
+        if (steps instanceof StepStateBuffer) {
+            return ((StepStateBuffer) steps).getProgress(stepPosition);
+        }
+        if (steps instanceof StepList) {
+            return ((StepList) steps).getImmutableStep(stepPosition).getProgress();
+        }
+        return steps.get(stepPosition).getProgress();
+    }
+}
@@ -0,0 +1,173 @@
+package com.vinay.stepview;
+
+import androidx.annotation.NonNull;
+
+import com.vinay.stepview.models.Step;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Matches the steps of a new list of steps to the steps previously displayed by a
+ * {@link StepView}, so that the StepView only updates the steps that were inserted, removed,
+ * moved or changed.
+ * <p>
+ * Steps are identified by their name. The matching is the longest common subsequence of the two
+ * lists of names, found with the linear-space variant of Myers' O((N+M)D) algorithm: the middle
+ * snake of the shortest edit script is found, then both sides of it are matched recursively.
+ * Only two arrays of N+M diagonals are allocated, whatever the number of edits. The common prefix
+ * and suffix are trimmed first, so appending, removing or completing a step costs O(N).
+ * <p>
+ * A step that moved is matched either at its old or at its new position, and treated as a
+ * removal and an insertion otherwise. When the lists differ by more than about
+ * 2 * {@link #MAX_ROUNDS} insertions and removals (e.g. all the steps were renamed), the search
+ * is abandoned and the differing steps are left unmatched, which re-binds them all.
+ */
+final class StepListDiff {
+
+    /**
+     * Maximum number of rounds of the search for a middle snake, so the search costs at most
+     * O((N+M) * MAX_ROUNDS)
+     */
+    static final int MAX_ROUNDS = 256;
+
+    private final List<Step> mOldSteps;
+    private final List<Step> mNewSteps;
+    private final int[] mNewToOld;
+
+    // Furthest x reached on each diagonal by the paths from the start, and by the paths from the
+    // end in reversed coordinates. Diagonal k is at index mOffset + k.
+    private final int[] mForward;
+    private final int[] mBackward;
+    private final int mOffset;
+
+    // Middle snake found by findMiddleSnake(), in positions of the old and new lists
+    private int mSnakeOldStart;
+    private int mSnakeNewStart;
+    private int mSnakeLength;
+
+    private StepListDiff(List<Step> oldSteps, List<Step> newSteps) {
+        mOldSteps = oldSteps;
+        mNewSteps = newSteps;
+        mNewToOld = new int[newSteps.size()];
+        Arrays.fill(mNewToOld, -1);
+        final int max = oldSteps.size() + newSteps.size();
+        mOffset = max + 1;
+        mForward = new int[2 * max + 3];
+        mBackward = new int[2 * max + 3];
+    }
+
+    /**
+     * Matches the new steps to the old ones
+     *
+     * @param oldSteps The old steps
+     * @param newSteps The new steps
+     * @return For each new step, the position of the matching old step, or -1 if it was inserted.
+     * Matching positions are increasing.
+     */
+    @NonNull
+    static int[] matchSteps(@NonNull List<Step> oldSteps, @NonNull List<Step> newSteps) {
+        StepListDiff diff = new StepListDiff(oldSteps, newSteps);
+        diff.matchRange(0, oldSteps.size(), 0, newSteps.size());
+        return diff.mNewToOld;
+    }
+
+    /**
+     * Matches the old steps in [oldStart, oldEnd) to the new steps in [newStart, newEnd)
+     */
+    private void matchRange(int oldStart, int oldEnd, int newStart, int newEnd) {
+        // Common prefix and suffix
+        while (oldStart < oldEnd && newStart < newEnd && isSameStep(oldStart, newStart)) {
+            mNewToOld[newStart++] = oldStart++;
+        }
+        while (oldStart < oldEnd && newStart < newEnd && isSameStep(oldEnd - 1, newEnd - 1)) {
+            mNewToOld[--newEnd] = --oldEnd;
+        }
+        if (oldStart == oldEnd || newStart == newEnd
+                || !findMiddleSnake(oldStart, oldEnd, newStart, newEnd)) {
+            return;
+        }
+        // The fields are overwritten by the recursive calls
+        final int snakeOldStart = mSnakeOldStart;
+        final int snakeNewStart = mSnakeNewStart;
+        final int snakeLength = mSnakeLength;
+        for (int i = 0; i < snakeLength; i++) {
+            mNewToOld[snakeNewStart + i] = snakeOldStart + i;
+        }
+        // The prefix and suffix were trimmed, so the edit script has at least two edits, and
+        // the middle snake is neither at its start nor at its end: both ranges are smaller
+        matchRange(oldStart, snakeOldStart, newStart, snakeNewStart);
+        matchRange(snakeOldStart + snakeLength, oldEnd, snakeNewStart + snakeLength, newEnd);
+    }
+
+    /**
+     * Finds the middle snake of the shortest edit script of a range, by searching from both ends
+     * until the paths overlap. In range coordinates, x is an offset in the old steps, y in the new
+     * steps, and diagonal k = x - y. The paths from the end are searched in reversed coordinates.
+     *
+     * @return false if the search was abandoned after {@link #MAX_ROUNDS} rounds
+     */
+    private boolean findMiddleSnake(int oldStart, int oldEnd, int newStart, int newEnd) {
+        final int n = oldEnd - oldStart;
+        final int m = newEnd - newStart;
+        final int delta = n - m;
+        final boolean isDeltaOdd = (delta & 1) != 0;
+        final int[] forward = mForward;
+        final int[] backward = mBackward;
+        final int offset = mOffset;
+        forward[offset + 1] = 0;
+        backward[offset + 1] = 0;
+        final int maxRounds = Math.min((n + m + 1) / 2, MAX_ROUNDS);
+        for (int d = 0; d <= maxRounds; d++) {
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d || (k != d && forward[offset + k - 1] < forward[offset + k + 1])
+                        ? forward[offset + k + 1] // Insertion
+                        : forward[offset + k - 1] + 1; // Removal
+                int y = x - k;
+                final int snakeX = x;
+                while (x < n && y < m && isSameStep(oldStart + x, newStart + y)) {
+                    x++;
+                    y++;
+                }
+                forward[offset + k] = x;
+                // The path from the end on the same diagonal, searched for d - 1 rounds
+                final int backwardK = delta - k;
+                if (isDeltaOdd && backwardK >= -(d - 1) && backwardK <= d - 1
+                        && n - backward[offset + backwardK] <= x) {
+                    setSnake(oldStart + snakeX, newStart + snakeX - k, x - snakeX);
+                    return true;
+                }
+            }
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d || (k != d && backward[offset + k - 1] < backward[offset + k + 1])
+                        ? backward[offset + k + 1]
+                        : backward[offset + k - 1] + 1;
+                int y = x - k;
+                final int snakeX = x;
+                while (x < n && y < m && isSameStep(oldEnd - 1 - x, newEnd - 1 - y)) {
+                    x++;
+                    y++;
+                }
+                backward[offset + k] = x;
+                // The path from the start on the same diagonal, searched for d rounds
+                final int forwardK = delta - k;
+                if (!isDeltaOdd && forwardK >= -d && forwardK <= d
+                        && n - x <= forward[offset + forwardK]) {
+                    setSnake(oldEnd - x, newEnd - y, x - snakeX);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void setSnake(int oldStart, int newStart, int length) {
+        mSnakeOldStart = oldStart;
+        mSnakeNewStart = newStart;
+        mSnakeLength = length;
+    }
+
+    private boolean isSameStep(int oldPosition, int newPosition) {
+        return StepListAccess.getName(mOldSteps, oldPosition).equals(StepListAccess.getName(mNewSteps, newPosition));
+    }
+}
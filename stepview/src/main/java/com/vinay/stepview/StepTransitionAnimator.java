@@ -0,0 +1,254 @@
+package com.vinay.stepview;
+
+import android.os.Build;
+import android.text.Layout;
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import com.vinay.stepview.models.Step;
+
+/**
+ * Animates steps of a {@link StepViewIndicator} from one state to another, on {@link Choreographer}
+ * frames. The indicator draws each step in transition as a blend of its two states: the line
+ * leading to the step fills or empties, the icons of both states cross-fade, and so do the colors
+ * of the label.
+ * <p>
+ * Transitions are kept in parallel arrays, and a frame only advances them and notifies the
+ * indicator of each step in transition, which redraws the region of that step. Frames are only
+ * scheduled while at least one transition is running.
+ * <p>
+ * When the state of a step changes while it is in transition, the transitions are coalesced:
+ * changing back to the state the transition started from reverses it from where it is, and
+ * changing to a third state starts a new transition from the state that is currently the most
+ * visible. A step therefore never has more than one transition.
+ * <p>
+ * All methods must be called on the main thread.
+ */
+@RequiresApi(Build.VERSION_CODES.JELLY_BEAN)
+final class StepTransitionAnimator implements Choreographer.FrameCallback {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final StepViewIndicator mIndicator;
+    private long mDurationNanos;
+    private boolean mIsFrameScheduled;
+
+    private int mCount; // Number of transitions running
+    private int[] mStepPositions = new int[INITIAL_CAPACITY];
+    private Step.State[] mFromStates = new Step.State[INITIAL_CAPACITY];
+    private Step.State[] mToStates = new Step.State[INITIAL_CAPACITY];
+    private Layout[] mFromLabelLayouts = new Layout[INITIAL_CAPACITY]; // Label drawn on the canvas in the "from" state, or null if not resolved
+    private long[] mStartNanos = new long[INITIAL_CAPACITY];
+    private float[] mFractions = new float[INITIAL_CAPACITY]; // Linear progress of each transition, from 0 to 1
+
+    StepTransitionAnimator(@NonNull StepViewIndicator indicator) {
+        mIndicator = indicator;
+    }
+
+    /**
+     * Sets the duration of the transitions, including the ones that are running
+     *
+     * @param durationMillis Duration, in milliseconds. Must be positive.
+     */
+    void setDuration(long durationMillis) {
+        mDurationNanos = durationMillis * 1000000L;
+    }
+
+    /**
+     * Starts animating the step at the given position from one state to another, or coalesces the
+     * change with the transition of the step, if it is running
+     *
+     * @param stepPosition Position of the step
+     * @param fromState    State the step was in
+     * @param toState      State the step is now in
+     */
+    void start(int stepPosition, @NonNull Step.State fromState, @NonNull Step.State toState) {
+        final long now = System.nanoTime();
+        final int index = indexOf(stepPosition);
+        if (index >= 0) {
+            if (toState == mToStates[index]) {
+                return;
+            }
+            if (toState == mFromStates[index]) {
+                // Reverse the transition from where it is
+                final float fraction = mFractions[index];
+                mFromStates[index] = mToStates[index];
+                mToStates[index] = toState;
+                mFromLabelLayouts[index] = null;
+                mFractions[index] = 1 - fraction;
+                mStartNanos[index] = now - (long) ((1 - fraction) * mDurationNanos);
+            } else {
+                // Start from the state that is the most visible
+                if (mFractions[index] >= 0.5f) {
+                    mFromStates[index] = mToStates[index];
+                    mFromLabelLayouts[index] = null;
+                }
+                mToStates[index] = toState;
+                mFractions[index] = 0;
+                mStartNanos[index] = now;
+            }
+        } else {
+            if (fromState == toState) {
+                return;
+            }
+            ensureCapacity(mCount + 1);
+            mStepPositions[mCount] = stepPosition;
+            mFromStates[mCount] = fromState;
+            mToStates[mCount] = toState;
+            mFromLabelLayouts[mCount] = null;
+            mFractions[mCount] = 0;
+            mStartNanos[mCount] = now;
+            mCount++;
+        }
+        if (!mIsFrameScheduled) {
+            mIsFrameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Ends all the transitions immediately. The indicator is notified of the end of each of them.
+     */
+    void cancel() {
+        if (mIsFrameScheduled) {
+            mIsFrameScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+        while (mCount > 0) {
+            end(mCount - 1);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        mIsFrameScheduled = false;
+        for (int i = mCount - 1; i >= 0; i--) {
+            final long elapsedNanos = frameTimeNanos - mStartNanos[i];
+            if (elapsedNanos >= mDurationNanos) {
+                end(i);
+            } else {
+                mFractions[i] = Math.max(elapsedNanos, 0) / (float) mDurationNanos;
+                mIndicator.onTransitionFrame(mStepPositions[i], mFromStates[i], mToStates[i], getInterpolatedFraction(i));
+            }
+        }
+        if (mCount > 0) {
+            mIsFrameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Returns whether any transition is running
+     *
+     * @return true if at least one step is in transition
+     */
+    boolean isRunning() {
+        return mCount > 0;
+    }
+
+    /**
+     * Returns the index of the transition of the step at the given position
+     *
+     * @param stepPosition Position of the step
+     * @return Index of the transition, or -1 if the step is not in transition
+     */
+    int indexOf(int stepPosition) {
+        for (int i = 0; i < mCount; i++) {
+            if (mStepPositions[i] == stepPosition) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    int getCount() {
+        return mCount;
+    }
+
+    int getStepPosition(int index) {
+        return mStepPositions[index];
+    }
+
+    @NonNull
+    Step.State getFromState(int index) {
+        return mFromStates[index];
+    }
+
+    @NonNull
+    Step.State getToState(int index) {
+        return mToStates[index];
+    }
+
+    /**
+     * Returns the layout of the label of a step in its "from" state, if it was resolved
+     *
+     * @param index Index of the transition
+     * @return Layout of the label, or null
+     */
+    @Nullable
+    Layout getFromLabelLayout(int index) {
+        return mFromLabelLayouts[index];
+    }
+
+    void setFromLabelLayout(int index, @Nullable Layout fromLabelLayout) {
+        mFromLabelLayouts[index] = fromLabelLayout;
+    }
+
+    /**
+     * Returns the progress of a transition, eased in and out
+     *
+     * @param index Index of the transition
+     * @return Progress, from 0 (the "from" state) to 1 (the "to" state)
+     */
+    float getInterpolatedFraction(int index) {
+        final float fraction = mFractions[index];
+        return fraction * fraction * (3 - 2 * fraction);
+    }
+
+    private void end(int index) {
+        final int stepPosition = mStepPositions[index];
+        final Step.State fromState = mFromStates[index];
+        final Step.State toState = mToStates[index];
+        // Move the last transition in place of the ended one
+        final int last = mCount - 1;
+        mStepPositions[index] = mStepPositions[last];
+        mFromStates[index] = mFromStates[last];
+        mToStates[index] = mToStates[last];
+        mFromLabelLayouts[index] = mFromLabelLayouts[last];
+        mStartNanos[index] = mStartNanos[last];
+        mFractions[index] = mFractions[last];
+        mFromStates[last] = null;
+        mToStates[last] = null;
+        mFromLabelLayouts[last] = null;
+        mCount = last;
+        mIndicator.onTransitionEnded(stepPosition, fromState, toState);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= mStepPositions.length) {
+            return;
+        }
+        final int newCapacity = Math.max(capacity, mStepPositions.length * 2);
+        int[] stepPositions = new int[newCapacity];
+        System.arraycopy(mStepPositions, 0, stepPositions, 0, mCount);
+        mStepPositions = stepPositions;
+        Step.State[] fromStates = new Step.State[newCapacity];
+        System.arraycopy(mFromStates, 0, fromStates, 0, mCount);
+        mFromStates = fromStates;
+        Step.State[] toStates = new Step.State[newCapacity];
+        System.arraycopy(mToStates, 0, toStates, 0, mCount);
+        mToStates = toStates;
+        Layout[] fromLabelLayouts = new Layout[newCapacity];
+        System.arraycopy(mFromLabelLayouts, 0, fromLabelLayouts, 0, mCount);
+        mFromLabelLayouts = fromLabelLayouts;
+        long[] startNanos = new long[newCapacity];
+        System.arraycopy(mStartNanos, 0, startNanos, 0, mCount);
+        mStartNanos = startNanos;
+        float[] fractions = new float[newCapacity];
+        System.arraycopy(mFractions, 0, fractions, 0, mCount);
+        mFractions = fractions;
+    }
+}
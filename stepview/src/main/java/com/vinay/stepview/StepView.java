@@ -1,18 +1,31 @@
 package com.vinay.stepview;
 
 import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.Configuration;
+import android.content.res.TypedArray;
 import android.graphics.Color;
+import android.graphics.Typeface;
 import android.graphics.drawable.Drawable;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.graphics.ColorUtils;
+import android.text.TextUtils;
 import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.MotionEvent;
 import android.widget.LinearLayout;
 import android.widget.RelativeLayout;
 import android.widget.TextView;
 
+import com.vinay.stepview.models.ImmutableStep;
 import com.vinay.stepview.models.Step;
+import com.vinay.stepview.models.StepList;
+import com.vinay.stepview.models.StepStateBuffer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -20,7 +33,8 @@ import java.util.List;
  * The drawable and the styling of the text are modified based on the {@link com.vinay.stepview.models.Step.State State} of the {@link Step}
  * <p>
  * This class is abstract and needs to be extended before it can be used.
- * The derived class must define how the Step text is displayed using the {@link #updateView()} method
+ * The derived class must define where the Step text is displayed using the
+ * {@link #positionLabel(TextView, int, float, int)} method
  */
 public abstract class StepView extends LinearLayout implements StepViewIndicator.onUpdateIndicatorListener {
 
@@ -29,11 +43,65 @@ public abstract class StepView extends LinearLayout implements StepViewIndicator
     int mCurrentStepTextColor = Color.WHITE;
     int mTextSize = 14;
 
+    /**
+     * The text, typeface or size of the labels must be re-bound and the labels re-measured
+     */
+    static final int DIRTY_CONTENT = 1;
+    /**
+     * Only the text colors of the labels must be re-bound
+     */
+    static final int DIRTY_COLOR = 1 << 1;
+    /**
+     * The labels must be moved to follow the geometry of the {@link StepViewIndicator}
+     */
+    static final int DIRTY_POSITION = 1 << 2;
+
+    int mDirtyFlags = DIRTY_CONTENT | DIRTY_COLOR | DIRTY_POSITION; // Parts of the labels that are out of date
+    int mLabelLayoutVersion = -1; // Version of the indicator geometry the labels were positioned against
+    final BitSet mDirtySteps = new BitSet(); // Positions of the steps whose labels must be re-bound
+    boolean mStepsChanged; // Whether steps were added, removed or replaced since the last update
+
+    // Steps as last applied, which setSteps(List) compares new steps against: the list displayed.
+    // A StepStateBuffer displayed is changed in place, and records its changes since its version
+    // mAppliedVersion, see StepStateBuffer#getVersion()
+    List<Step> mAppliedSteps = StepList.empty();
+    int mAppliedVersion;
+
+    int mBatchDepth; // Number of nested beginBatch() calls
+
     StepViewIndicator mStepViewIndicator;
     RelativeLayout mTextContainer;
 
     List<Step> mStepList;
     final List<TextView> mTextViewList = new ArrayList<>();
+    int[] mLabelSteps = new int[0]; // Position of the step displayed by each TextView, or -1
+    int[] mLabelWidths = new int[0]; // Measured width of each TextView, see LabelMeasureCache
+    int mLabelWindowStart; // Position of the first step that has a label
+    int mLabelWindowEnd; // Position after the last step that has a label
+
+    /**
+     * Number of steps on either side of the viewport whose labels are bound in advance when the
+     * StepView is scrollable
+     */
+    static final int LABEL_PREFETCH_STEPS = 2;
+
+    /**
+     * Number of text colors a TextView label goes through during a state transition
+     */
+    private static final int TRANSITION_TEXT_COLOR_COUNT = 32;
+
+    private static final int STATE_COUNT = Step.State.values().length;
+
+    // Text colors of TextView labels in transition, by pair of states, see getTransitionTextColor()
+    private final ColorStateList[][] mTransitionTextColors = new ColorStateList[STATE_COUNT * STATE_COUNT][];
+
+    boolean mIsScrollable; // Whether the StepView scrolls its steps itself, see setScrollEnabled(boolean)
+    int mPendingScrollStep = -1; // Position of the step to scroll to once the StepView is laid out
+    StepViewScroller mScroller;
+
+    StepViewMetrics mMetrics; // Receives the work done by the StepView, or null
+    long mStateTransitionDuration; // Duration of the transitions between states, in milliseconds, or 0
+    int mBoundLabelCount; // Number of labels bound by the current call to updateView()
 
     public StepView(Context context) {
         this(context, null);
@@ -48,7 +116,55 @@ public abstract class StepView extends LinearLayout implements StepViewIndicator
     }
 
     /**
-     * Returns the list of steps
+     * Reads the attributes of the <code>StepView</code> styleable, from the XML attributes and the
+     * given default style. Derived classes invoke this once from their constructor, after the
+     * {@link StepViewIndicator} and the text container have been created, so that the StepView is
+     * fully configured before it is first measured.
+     *
+     * @param attrs        - The attributes of the XML tag that is inflating the view, or null
+     * @param defStyleAttr - An attribute of the theme that references the default style, or 0
+     */
+    void applyAttributes(@Nullable AttributeSet attrs, int defStyleAttr) {
+        TypedArray a = getContext().obtainStyledAttributes(attrs, R.styleable.StepView, defStyleAttr, 0);
+        try {
+            mStepViewIndicator.applyAttributes(a);
+            mNotCompletedStepTextColor = a.getColor(R.styleable.StepView_sv_notCompletedStepTextColor, mNotCompletedStepTextColor);
+            mCompletedStepTextColor = a.getColor(R.styleable.StepView_sv_completedStepTextColor, mCompletedStepTextColor);
+            mCurrentStepTextColor = a.getColor(R.styleable.StepView_sv_currentStepTextColor, mCurrentStepTextColor);
+            if (a.hasValue(R.styleable.StepView_sv_textSize)) {
+                // The text size is kept in sp
+                final float textSizePx = a.getDimension(R.styleable.StepView_sv_textSize, 0);
+                mTextSize = Math.round(textSizePx / getResources().getDisplayMetrics().scaledDensity);
+            }
+            if (a.getBoolean(R.styleable.StepView_sv_canvasLabels, false)) {
+                setCanvasLabelsEnabled(true);
+            }
+        } finally {
+            a.recycle();
+        }
+    }
+
+    /**
+     * Sets the logger that receives the diagnostic messages of all StepViews.
+     * <p>
+     * Logging is disabled by default, and no message is built unless a logger is set. It works
+     * in release builds of the library too, so a release build of an app can be traced.
+     *
+     * @param logger - {@link StepViewLogger} (e.g. {@link StepViewLogger#LOGCAT}), or null to disable logging
+     */
+    public static void setLogger(@Nullable StepViewLogger logger) {
+        StepViewLog.setLogger(logger);
+    }
+
+    /**
+     * Returns the list of steps currently displayed, which includes the changes made since they
+     * were set with {@link #setStepState(Step.State, int)}, {@link #setStep(Step, int)},
+     * {@link #setStepProgress(float, int)} or an {@link Editor}. This is the {@link StepStateBuffer}
+     * the steps were set as, or else a {@link StepList}, see {@link #setSteps(List)}.
+     * <p>
+     * A StepList is a snapshot, which cannot be modified: its steps are copies, so modifying them
+     * does not change the steps displayed, and adding or removing steps throws an
+     * {@link UnsupportedOperationException}. Change the steps through this StepView instead.
      *
      * @return {@link List} - List of steps, or null
      */
@@ -59,18 +175,267 @@ public abstract class StepView extends LinearLayout implements StepViewIndicator
 
     /**
      * Sets the list of steps.
+     * <p>
+     * The new steps are compared with the steps currently displayed, by name and state, so that
+     * only the steps that were inserted, removed, moved or changed are updated. Setting steps
+     * that are equal to the current ones costs nothing, even if the list is a new one, and setting
+     * steps that only differ by the state of some of them costs the same as calling
+     * {@link #setStepState(Step.State, int)} for each of them, state transitions included
+     * (see {@link #setStateTransitionDuration(long)}). The list can therefore be set again
+     * whenever new steps are received, e.g. on every poll of a server.
+     * <p>
+     * A {@link StepList} is held as is. Setting the StepList currently displayed again costs
+     * constant time, and setting an equal StepList one cheap comparison per step. Any other list is
+     * copied to a StepList, so changing it or its steps afterwards does not change the steps
+     * displayed: set it again instead. Only the steps that differ from the steps displayed at the
+     * same position are copied, so setting equal steps again allocates nothing. Changes made to
+     * the steps through this StepView replace the StepList with modified copies, see
+     * {@link #getSteps()}.
+     * <p>
+     * A {@link StepStateBuffer} is held by reference, and its steps are changed in place. Its steps
+     * are read from its arrays, without creating a {@link Step} for each of them, which suits lists
+     * of thousands of steps.
      *
      * @param stepList {@link List} of {@link Step} objects, or null
      * @return The current {@link StepView} instance for chaining
      */
     public StepView setSteps(@Nullable List<Step> stepList) {
+        if (stepList != null && !(stepList instanceof StepStateBuffer)) {
+            // Steps equal to the ones displayed at the same position are shared, not copied
+            stepList = mStepList instanceof StepList
+                    ? ((StepList) mStepList).withSteps(stepList)
+                    : StepList.of(stepList);
+        }
+        if (stepList instanceof StepList && mStepList instanceof StepList && stepList.equals(mStepList)) {
+            // Immutable and equal to the steps displayed, so nothing changed
+            mStepList = stepList;
+            replaceIndicatorSteps();
+            return this;
+        }
+        if (mStepList == null || stepList == null) {
+            mStepList = stepList;
+            onStepsChanged();
+            return this;
+        }
+        if (stepList instanceof StepStateBuffer && stepList == mAppliedSteps) {
+            // The buffer displayed, set again: it recorded its changes since it was applied
+            applyBufferChanges();
+            return this;
+        }
+        final List<Step> appliedSteps = getAppliedSteps();
         mStepList = stepList;
-        mStepViewIndicator.setSteps(mStepList);
-        ensureTextViewCount();
+        if (hasStepNames(appliedSteps)) {
+            updateSteps(appliedSteps);
+        } else {
+            diffSteps(appliedSteps);
+        }
 
         return this;
     }
 
+    /**
+     * Returns whether the steps have the names of the steps last applied, at the same positions,
+     * in which case they need no {@link StepListDiff}
+     */
+    private boolean hasStepNames(List<Step> appliedSteps) {
+        final int stepCount = appliedSteps.size();
+        if (mStepList.size() != stepCount) {
+            return false;
+        }
+        for (int i = 0; i < stepCount; i++) {
+            if (!StepListAccess.getName(mStepList, i).equals(StepListAccess.getName(appliedSteps, i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies a list of steps with the names of the steps last applied, at the same positions:
+     * only the steps whose state changed are updated
+     */
+    private void updateSteps(List<Step> appliedSteps) {
+        replaceIndicatorSteps();
+        boolean isChanged = false;
+        final int stepCount = appliedSteps.size();
+        for (int i = 0; i < stepCount; i++) {
+            final Step.State state = StepListAccess.getState(mStepList, i);
+            final Step.State appliedState = StepListAccess.getState(appliedSteps, i);
+            if (state != appliedState) {
+                mStepViewIndicator.startTransition(i, appliedState, state);
+                mDirtySteps.set(i);
+                isChanged = true;
+            }
+            if (StepListAccess.getProgress(mStepList, i) != StepListAccess.getProgress(appliedSteps, i)) {
+                mStepViewIndicator.invalidateStepProgress(i);
+            }
+        }
+        recordSteps();
+        if (isChanged) {
+            dispatchChanges();
+        }
+    }
+
+    /**
+     * Applies a list of steps in which steps were inserted, removed, moved or renamed. The new
+     * steps are matched to the steps last applied with a {@link StepListDiff}: the labels of the
+     * steps that kept their position and state are not re-bound, and matched steps whose state
+     * changed are animated from their previous state.
+     */
+    private void diffSteps(List<Step> appliedSteps) {
+        final int[] newToOld = StepListDiff.matchSteps(appliedSteps, mStepList);
+        for (int i = 0; i < newToOld.length; i++) {
+            if (newToOld[i] != i || StepListAccess.getState(mStepList, i) != StepListAccess.getState(appliedSteps, i)) {
+                mDirtySteps.set(i);
+            }
+        }
+        // The geometry changes, so the whole indicator is redrawn, but the labels are not all re-bound
+        mStepsChanged = true;
+        dispatchChanges();
+        // Starting transitions after the indicator has the new steps, which ends the running transitions
+        for (int i = 0; i < newToOld.length; i++) {
+            final int oldPosition = newToOld[i];
+            if (oldPosition >= 0) {
+                mStepViewIndicator.startTransition(i, StepListAccess.getState(appliedSteps, oldPosition), StepListAccess.getState(mStepList, i));
+            }
+        }
+        recordSteps();
+    }
+
+    /**
+     * Applies the changes made to the {@link StepStateBuffer} displayed since it was last applied.
+     * The buffer recorded the steps it changed with their previous values, so neither the buffer
+     * is copied nor all its steps compared: this costs the number of steps changed. Steps inserted
+     * or removed are found with a {@link StepListDiff} against the copy the buffer then made.
+     */
+    private void applyBufferChanges() {
+        final StepStateBuffer buffer = (StepStateBuffer) mStepList;
+        if (buffer.getVersion() == mAppliedVersion) {
+            return;
+        }
+        if (buffer.isStructureChanged()) {
+            diffSteps(buffer.getPreviousSteps());
+            return;
+        }
+        boolean isChanged = false;
+        for (int change = 0; change < buffer.getChangedStepCount(); change++) {
+            final int i = buffer.getChangedStepPosition(change);
+            final Step.State state = buffer.getState(i);
+            final Step.State previousState = buffer.getPreviousState(change);
+            if (!buffer.getName(i).equals(buffer.getPreviousName(change))) {
+                // Renamed, so another step, which is not animated, as in diffSteps()
+                mDirtySteps.set(i);
+                isChanged = true;
+            } else if (state != previousState) {
+                mStepViewIndicator.startTransition(i, previousState, state);
+                mDirtySteps.set(i);
+                isChanged = true;
+            }
+            if (buffer.getProgress(i) != buffer.getPreviousProgress(change)) {
+                mStepViewIndicator.invalidateStepProgress(i);
+            }
+        }
+        recordSteps();
+        if (isChanged) {
+            dispatchChanges();
+        }
+    }
+
+    /**
+     * Returns the steps as last applied. A {@link StepStateBuffer} changed since then returns its
+     * steps as they were.
+     */
+    private List<Step> getAppliedSteps() {
+        return mAppliedSteps instanceof StepStateBuffer
+                ? ((StepStateBuffer) mAppliedSteps).getPreviousSteps()
+                : mAppliedSteps;
+    }
+
+    /**
+     * Records all the steps as applied, see {@link #setSteps(List)}. A {@link StepList} cannot
+     * change, so it is its own record, and a {@link StepStateBuffer} forgets its changes.
+     */
+    private void recordSteps() {
+        mAppliedSteps = mStepList == null ? StepList.empty() : mStepList;
+        if (mStepList instanceof StepStateBuffer) {
+            final StepStateBuffer buffer = (StepStateBuffer) mStepList;
+            buffer.clearChanges();
+            mAppliedVersion = buffer.getVersion();
+        }
+    }
+
+    /**
+     * Sets the state of the step at the given position, replacing the {@link StepList} with a
+     * modified copy
+     */
+    private void setStateAt(int stepPosition, Step.State state) {
+        if (mStepList instanceof StepStateBuffer) {
+            ((StepStateBuffer) mStepList).setState(stepPosition, state);
+        } else {
+            replaceStep(stepPosition, ((StepList) mStepList).getImmutableStep(stepPosition).withState(state));
+        }
+    }
+
+    /**
+     * Sets the name of the step at the given position, replacing the {@link StepList} with a
+     * modified copy
+     */
+    private void setNameAt(int stepPosition, String name) {
+        if (mStepList instanceof StepStateBuffer) {
+            ((StepStateBuffer) mStepList).setName(stepPosition, name);
+        } else {
+            replaceStep(stepPosition, ((StepList) mStepList).getImmutableStep(stepPosition).withName(name));
+        }
+    }
+
+    /**
+     * Sets the progress of the step at the given position, replacing the {@link StepList} with a
+     * modified copy
+     */
+    private void setProgressAt(int stepPosition, float progress) {
+        if (mStepList instanceof StepStateBuffer) {
+            ((StepStateBuffer) mStepList).setProgress(stepPosition, progress);
+        } else {
+            replaceStep(stepPosition, ((StepList) mStepList).getImmutableStep(stepPosition).withProgress(progress));
+        }
+    }
+
+    /**
+     * Replaces the step at the given position of the {@link StepList} with a modified copy
+     */
+    private void replaceStep(int stepPosition, ImmutableStep step) {
+        mStepList = ((StepList) mStepList).with(stepPosition, step);
+        replaceIndicatorSteps();
+    }
+
+    /**
+     * Gives the current list of steps to the {@link StepViewIndicator}, which must already have as
+     * many steps. When steps were added or removed, the indicator gets the new list when the
+     * changes are dispatched instead.
+     */
+    private void replaceIndicatorSteps() {
+        if (!mStepsChanged) {
+            mStepViewIndicator.replaceSteps(mStepList);
+        }
+    }
+
+    /**
+     * Records the step at the given position as applied, after it was changed through this
+     * StepView, see {@link #setSteps(List)}. A {@link StepStateBuffer} forgets the change of the
+     * step, and is recorded as applied once it has no other change.
+     */
+    private void recordStep(int stepPosition) {
+        if (!(mStepList instanceof StepStateBuffer) || mStepList != mAppliedSteps) {
+            recordSteps();
+            return;
+        }
+        final StepStateBuffer buffer = (StepStateBuffer) mStepList;
+        buffer.clearChange(stepPosition);
+        if (!buffer.isStructureChanged() && buffer.getChangedStepCount() == 0) {
+            mAppliedVersion = buffer.getVersion();
+        }
+    }
+
     /**
      * Sets the state of the step at the given position.
      *
@@ -88,18 +453,107 @@ public abstract class StepView extends LinearLayout implements StepViewIndicator
             throw new IndexOutOfBoundsException(String.format("Invalid step position %d. The list of steps has %d items", stepPosition, mStepList.size()));
         }
 
-        mStepList.get(stepPosition).setState(state);
-        ensureTextViewCount();
-        mStepViewIndicator.setSteps(mStepList);
+        final Step.State previousState = StepListAccess.getState(mStepList, stepPosition);
+        setStateAt(stepPosition, state);
+        mStepViewIndicator.startTransition(stepPosition, previousState, state);
+        onStepChanged(stepPosition);
 
         return this;
     }
 
     /**
-     * Returns the step at the given position
+     * Sets the progress of the step at the given position towards completion, e.g. the progress
+     * of an upload. The line leading to the step is filled in proportion to its progress, until
+     * the step is completed.
+     * <p>
+     * Only that line is redrawn: the labels are not re-bound and no layout pass is requested,
+     * so the progress can be updated on every frame. It is applied immediately, even during a batch.
+     *
+     * @param progress     - The progress of the step, from 0 to 1. Values outside this range are clamped.
+     * @param stepPosition - The integer position of the step whose progress is to be modified
+     * @return The current {@link StepView} instance for chaining
+     * @throws NullPointerException      if the list of steps is null
+     * @throws IndexOutOfBoundsException if the position exceeds the size of the list
+     * @see Step#setProgress(float)
+     */
+    public StepView setStepProgress(float progress, int stepPosition) {
+        if (mStepList == null) {
+            throw new NullPointerException(String.format("Invalid attempt to change step progress at position %d. List of steps is null. Did you forget to call setSteps()?", stepPosition));
+        }
+        if (mStepList.size() <= stepPosition) {
+            throw new IndexOutOfBoundsException(String.format("Invalid step position %d. The list of steps has %d items", stepPosition, mStepList.size()));
+        }
+
+        final float previousProgress = StepListAccess.getProgress(mStepList, stepPosition);
+        setProgressAt(stepPosition, progress);
+        final float newProgress = StepListAccess.getProgress(mStepList, stepPosition);
+        recordStep(stepPosition);
+        if (newProgress != previousProgress) {
+            mStepViewIndicator.invalidateStepProgress(stepPosition);
+        }
+
+        return this;
+    }
+
+    /**
+     * Starts a batch of changes. Until the matching call to {@link #endBatch()}, changes made with
+     * {@link #setSteps(List)}, {@link #setStepState(Step.State, int)}, {@link #setStep(Step, int)}
+     * and the text styling setters are recorded but not applied. They are applied together, with a
+     * single redraw of the indicator and a single update of the labels, when the outermost batch ends.
+     * <p>Batches can be nested.</p>
      *
-     * @param stepPosition - The integer position of the step to be retrieved
      * @return The current {@link StepView} instance for chaining
+     * @see #edit()
+     */
+    public StepView beginBatch() {
+        mBatchDepth++;
+
+        return this;
+    }
+
+    /**
+     * Ends a batch of changes started with {@link #beginBatch()}. When the outermost batch ends,
+     * all the changes recorded during the batch are applied at once.
+     *
+     * @return The current {@link StepView} instance for chaining
+     * @throws IllegalStateException if there is no batch in progress
+     */
+    public StepView endBatch() {
+        if (mBatchDepth == 0) {
+            throw new IllegalStateException("Invalid call to endBatch(). There is no batch in progress. Did you forget to call beginBatch()?");
+        }
+        mBatchDepth--;
+        dispatchChanges();
+
+        return this;
+    }
+
+    /**
+     * Returns an {@link Editor} that queues changes to the steps and applies them all at once when
+     * {@link Editor#commit()} is called.
+     * <pre>
+     * stepView.edit()
+     *         .setState(0, Step.State.COMPLETED)
+     *         .setState(1, Step.State.CURRENT)
+     *         .add(new Step("Delivered"))
+     *         .commit();
+     * </pre>
+     *
+     * @return A new {@link Editor} for this {@link StepView}
+     */
+    @NonNull
+    public Editor edit() {
+        return new Editor();
+    }
+
+    /**
+     * Returns a snapshot of the step at the given position: a copy, so modifying it does not change
+     * the step displayed. Change it with {@link #setStep(Step, int)} or
+     * {@link #setStepState(Step.State, int)} instead. The copy is equal to the steps with the same
+     * name, state and progress.
+     *
+     * @param stepPosition - The integer position of the step to be retrieved
+     * @return A copy of the {@link Step}
      * @throws NullPointerException      if the list of steps is null
      * @throws IndexOutOfBoundsException if the position exceeds the size of the list
      */
@@ -118,7 +572,7 @@ public abstract class StepView extends LinearLayout implements StepViewIndicator
     /**
      * Sets the step at the given position
      *
-     * @param step         - The {@link Step} object to be set at the given position
+     * @param step         - The {@link Step} object to be set at the given position, which is copied
      * @param stepPosition - The integer position in the list of steps
      * @return The current {@link StepView} instance for chaining
      * @throws NullPointerException      if the list of steps is null
@@ -132,9 +586,14 @@ public abstract class StepView extends LinearLayout implements StepViewIndicator
             throw new IndexOutOfBoundsException(String.format("Invalid step position %d. The list of steps has %d items", stepPosition, mStepList.size()));
         }
 
-        mStepList.set(stepPosition, step);
-        mStepViewIndicator.setSteps(mStepList);
-        ensureTextViewCount();
+        final Step.State previousState = StepListAccess.getState(mStepList, stepPosition);
+        if (mStepList instanceof StepStateBuffer) {
+            mStepList.set(stepPosition, step);
+        } else {
+            replaceStep(stepPosition, ImmutableStep.copyOf(step));
+        }
+        mStepViewIndicator.startTransition(stepPosition, previousState, step.getState());
+        onStepChanged(stepPosition);
 
         return this;
     }
@@ -161,7 +620,11 @@ public abstract class StepView extends LinearLayout implements StepViewIndicator
         if (textSizeSp <= 0) {
             throw new Error(String.format("Invalid text size %d. Must be greater than zero", textSizeSp));
         }
-        mTextSize = textSizeSp;
+        if (mTextSize != textSizeSp) {
+            mTextSize = textSizeSp;
+            mDirtyFlags |= DIRTY_CONTENT;
+            updateView();
+        }
 
         return this;
     }
@@ -185,6 +648,8 @@ public abstract class StepView extends LinearLayout implements StepViewIndicator
      */
     public StepView setNotCompletedStepTextColor(int notCompletedStepTextColor) {
         mNotCompletedStepTextColor = notCompletedStepTextColor;
+        mDirtyFlags |= DIRTY_COLOR;
+        updateView();
 
         return this;
     }
@@ -208,6 +673,8 @@ public abstract class StepView extends LinearLayout implements StepViewIndicator
      */
     public StepView setCompletedStepTextColor(int completedStepTextColor) {
         this.mCompletedStepTextColor = completedStepTextColor;
+        mDirtyFlags |= DIRTY_COLOR;
+        updateView();
 
         return this;
     }
@@ -231,6 +698,8 @@ public abstract class StepView extends LinearLayout implements StepViewIndicator
      */
     public StepView setCurrentStepTextColor(int currentStepTextColor) {
         this.mCurrentStepTextColor = currentStepTextColor;
+        mDirtyFlags |= DIRTY_COLOR;
+        updateView();
 
         return this;
     }
@@ -303,6 +772,7 @@ public abstract class StepView extends LinearLayout implements StepViewIndicator
 
     /**
      * Returns the Drawable used for not-completed steps.
+     * It is the drawable displayed, so changing it, e.g. its tint, changes the icon displayed.
      *
      * @return {@link Drawable} Not-completed step icon
      */
@@ -323,6 +793,7 @@ public abstract class StepView extends LinearLayout implements StepViewIndicator
 
     /**
      * Returns the Drawable used for completed steps.
+     * It is the drawable displayed, so changing it, e.g. its tint, changes the icon displayed.
      *
      * @return {@link Drawable} completed step icon
      */
@@ -343,6 +814,7 @@ public abstract class StepView extends LinearLayout implements StepViewIndicator
 
     /**
      * Returns the Drawable used for the current step.
+     * It is the drawable displayed, so changing it, e.g. its tint, changes the icon displayed.
      *
      * @return {@link Drawable} current step icon
      */
@@ -450,47 +922,1020 @@ public abstract class StepView extends LinearLayout implements StepViewIndicator
         return this;
     }
 
+    /**
+     * Sets whether the names of the steps are drawn directly on the canvas of the step indicator
+     * instead of being displayed by one {@link TextView} per step.
+     * <p>
+     * Drawn labels are laid out once and cached, and do not add any view to the hierarchy, which
+     * makes them much cheaper when many StepViews are displayed at once (e.g. in a list).
+     * However, they are not exposed to accessibility services as separate nodes, so a content
+     * description should be set on the StepView if the steps must be announced.
+     * <p>The default value is <code>false</code></p>
+     *
+     * @param isCanvasLabelsEnabled - Whether the names of the steps are drawn on the canvas
+     * @return The current {@link StepView} instance, for chaining
+     */
+    public StepView setCanvasLabelsEnabled(boolean isCanvasLabelsEnabled) {
+        if (isCanvasLabelsEnabled == isCanvasLabelsEnabled()) {
+            return this;
+        }
+        mStepViewIndicator.setLabelRenderer(isCanvasLabelsEnabled ? new StepLabelRenderer() : null);
+        mTextContainer.setVisibility(isCanvasLabelsEnabled ? GONE : VISIBLE);
+        mDirtyFlags = DIRTY_CONTENT | DIRTY_COLOR | DIRTY_POSITION;
+        mLabelLayoutVersion = -1;
+        updateView();
+
+        return this;
+    }
+
+    /**
+     * Returns whether the names of the steps are drawn on the canvas of the step indicator
+     *
+     * @return true if the names of the steps are drawn on the canvas
+     * @see #setCanvasLabelsEnabled(boolean)
+     */
+    public boolean isCanvasLabelsEnabled() {
+        return mStepViewIndicator.getLabelRenderer() != null;
+    }
+
+    /**
+     * Sets whether the step indicator is drawn from a snapshot of its content.
+     * <p>
+     * The lines, icons (and labels drawn on the canvas, see {@link #setCanvasLabelsEnabled(boolean)})
+     * are recorded once, then the snapshot is drawn in a single call until the steps, colors, icons
+     * or size change. This is intended for StepViews that rarely change once bound, such as the
+     * rows of a list. On API 29+ with hardware acceleration, the snapshot is a display list;
+     * otherwise it is a bitmap the size of the indicator, which uses more memory.
+     * <p>
+     * Animated icons are frozen in the snapshot. The snapshot is not used while the steps are
+     * scrolled (see {@link HorizontalStepView#setScrollable(boolean)} and {@link VerticalStepView#setVirtualized(boolean)}).
+     * <p>The default value is <code>false</code></p>
+     *
+     * @param isSnapshotEnabled - Whether the step indicator is drawn from a snapshot
+     * @return The current {@link StepView} instance, for chaining
+     */
+    public StepView setSnapshotEnabled(boolean isSnapshotEnabled) {
+        mStepViewIndicator.setSnapshotEnabled(isSnapshotEnabled);
+
+        return this;
+    }
+
+    /**
+     * Returns whether the step indicator is drawn from a snapshot of its content
+     *
+     * @return true if the step indicator is drawn from a snapshot
+     * @see #setSnapshotEnabled(boolean)
+     */
+    public boolean isSnapshotEnabled() {
+        return mStepViewIndicator.isSnapshotEnabled();
+    }
+
+    /**
+     * Sets the duration of the transition that animates a step from its previous state to its new
+     * state, when it is changed with {@link #setStepState(Step.State, int)}, {@link #setStep(Step, int)},
+     * an {@link Editor} or {@link #setSteps(List)}. A step given to setSteps(List) is animated
+     * from the state of the step with the same name it replaces; steps that were inserted are not
+     * animated, and inserting, removing or moving steps ends the transitions running.
+     * <p>
+     * The line leading to the step fills or empties, the icons of the two states cross-fade and the
+     * color of the label changes gradually. Each frame only redraws the region around the step and
+     * never requests a layout pass. A step whose state changes again during its transition is
+     * animated from where it is.
+     * <p>
+     * State changes are not animated before API 16.
+     * <p>The default value is <code>0</code>, which disables transitions</p>
+     *
+     * @param durationMillis - Duration of the transitions, in milliseconds, or 0 to disable them
+     * @return The current {@link StepView} instance, for chaining
+     */
+    public StepView setStateTransitionDuration(long durationMillis) {
+        mStateTransitionDuration = Math.max(durationMillis, 0);
+        mStepViewIndicator.setTransitionDuration(mStateTransitionDuration);
+
+        return this;
+    }
+
+    /**
+     * Returns the duration of the transitions between the states of a step
+     *
+     * @return Duration, in milliseconds, or 0 if transitions are disabled
+     * @see #setStateTransitionDuration(long)
+     */
+    public long getStateTransitionDuration() {
+        return mStateTransitionDuration;
+    }
+
+    /**
+     * Sets the listener that receives the work done by this StepView: measure, layout and draw
+     * passes, label bindings and invalidations, with their durations.
+     * <p>
+     * Metrics cost nothing while no listener is set. They are intended to be enabled on a sample
+     * of the StepViews in production, to find the screens where StepViews do the most work.
+     * <p>The default value is <code>null</code></p>
+     *
+     * @param metrics - {@link StepViewMetrics}, or null to stop reporting
+     * @return The current {@link StepView} instance, for chaining
+     */
+    public StepView setMetrics(@Nullable StepViewMetrics metrics) {
+        mMetrics = metrics;
+        mStepViewIndicator.setDrawTimingEnabled(metrics != null);
+        StepLabelRenderer labelRenderer = mStepViewIndicator.getLabelRenderer();
+        if (labelRenderer != null) {
+            labelRenderer.resetBindStats();
+        }
+
+        return this;
+    }
+
+    /**
+     * Returns the listener that receives the work done by this StepView
+     *
+     * @return {@link StepViewMetrics}, or null
+     * @see #setMetrics(StepViewMetrics)
+     */
+    @Nullable
+    public StepViewMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        // The font scale, locale or density may have changed: measure and position the labels again
+        LabelMeasureCache.onConfigurationChanged(newConfig);
+        mDirtyFlags |= DIRTY_CONTENT | DIRTY_POSITION;
+        updateView();
+    }
+
     @Override
     public void onIndicatorUpdated() {
         updateView();
     }
 
+    @Override
+    public void onIndicatorDrawn(long durationNanos) {
+        if (mMetrics == null) {
+            return;
+        }
+        StepLabelRenderer labelRenderer = mStepViewIndicator.getLabelRenderer();
+        if (labelRenderer != null && labelRenderer.getBoundLabelCount() > 0) {
+            mMetrics.onLabelsBound(this, labelRenderer.getBoundLabelCount(), labelRenderer.getMeasuredTextCount(), labelRenderer.getBindNanos());
+            labelRenderer.resetBindStats();
+        }
+        mMetrics.onDraw(this, durationNanos);
+    }
+
+    @Override
+    public void onStepTransition(int stepPosition, @NonNull Step.State fromState, @NonNull Step.State toState, float fraction) {
+        // Labels drawn on the canvas are cross-faded by the indicator
+        if (mTextViewList.isEmpty() || isCanvasLabelsEnabled()) {
+            return;
+        }
+        final int slot = stepPosition % mTextViewList.size();
+        if (mLabelSteps[slot] != stepPosition) {
+            // The label of the step is not bound
+            return;
+        }
+        final ColorStateList textColor = getTransitionTextColor(fromState, toState, fraction);
+        TextView textView = mTextViewList.get(slot);
+        if (textView.getTextColors() != textColor) {
+            textView.setTextColor(textColor);
+        }
+    }
+
     /**
-     * Updates the {@link TextView}s that display the {@link Step} text.
+     * Returns the text color of a label in transition between two states. The colors of a pair of
+     * states are created once, so that a frame of a transition does not allocate.
+     *
+     * @param fromState Previous state of the step
+     * @param toState   New state of the step
+     * @param fraction  Fraction of the transition, rounded to one of
+     *                  {@link #TRANSITION_TEXT_COLOR_COUNT} colors
+     * @return Text color
+     */
+    private ColorStateList getTransitionTextColor(Step.State fromState, Step.State toState, float fraction) {
+        final int fromColor = getStepTextColor(fromState);
+        final int toColor = getStepTextColor(toState);
+        final int pair = fromState.ordinal() * STATE_COUNT + toState.ordinal();
+        ColorStateList[] colors = mTransitionTextColors[pair];
+        if (colors == null
+                || colors[0].getDefaultColor() != fromColor
+                || colors[TRANSITION_TEXT_COLOR_COUNT - 1].getDefaultColor() != toColor) {
+            // First transition between these states, or the text colors changed since
+            colors = new ColorStateList[TRANSITION_TEXT_COLOR_COUNT];
+            for (int i = 0; i < TRANSITION_TEXT_COLOR_COUNT; i++) {
+                colors[i] = ColorStateList.valueOf(ColorUtils.blendARGB(fromColor, toColor, i / (TRANSITION_TEXT_COLOR_COUNT - 1f)));
+            }
+            mTransitionTextColors[pair] = colors;
+        }
+        final int index = Math.round(fraction * (TRANSITION_TEXT_COLOR_COUNT - 1));
+        return colors[Math.max(0, Math.min(index, TRANSITION_TEXT_COLOR_COUNT - 1))];
+    }
+
+    /**
+     * Returns whether the steps are laid out vertically
+     *
+     * @return true for a vertical StepView, false for a horizontal one
+     */
+    protected abstract boolean isVertical();
+
+    /**
+     * Sets whether the StepView scrolls its steps itself.
      * <p>
-     * This must be implemented by derived classes to control the behaviour and direction of the
-     * TextViews.
+     * When scrollable, the steps are measured without any bound along the main axis, and the
+     * StepView only occupies the space given by its parent. The steps are scrolled by dragging or
+     * flinging. Only the steps in the viewport are drawn, and only the steps in the viewport (plus
+     * a few on either side) have a label, so the cost of a frame and the number of TextViews do not
+     * depend on the number of steps.
+     * <p>
+     * A scrollable StepView must not be placed in a ScrollView, since it consumes drag gestures
+     * along its main axis.
+     *
+     * @param isScrollable - Whether the StepView scrolls its steps itself
+     */
+    void setScrollEnabled(boolean isScrollable) {
+        if (mIsScrollable == isScrollable) {
+            return;
+        }
+        mIsScrollable = isScrollable;
+        if (isScrollable) {
+            if (mScroller == null) {
+                mScroller = new StepViewScroller(this);
+            }
+        } else {
+            mScroller.abortAnimation();
+            scrollTo(0, 0);
+        }
+        onViewportChanged();
+        requestLayout();
+    }
+
+    /**
+     * Scrolls the steps so that the step at the given position is centered in the view, as far as
+     * the steps allow. The scroll is animated, unless the StepView has not been laid out yet, in
+     * which case it is applied as soon as it is laid out.
      * <p>
-     * This method is invoked when the {@link StepViewIndicator} has redrawn itself as a result of
-     * a change in the number of Steps, the size of the View, or manual invalidation
+     * This has no effect unless the StepView is scrollable
+     * (see {@link HorizontalStepView#setScrollable(boolean)} and {@link VerticalStepView#setVirtualized(boolean)}).
+     *
+     * @param stepPosition - The integer position of the step to scroll to
+     * @return The current {@link StepView} instance, for chaining
+     * @throws IndexOutOfBoundsException if the position exceeds the size of the list
+     */
+    public StepView scrollToStep(int stepPosition) {
+        final int stepCount = mStepList == null ? 0 : mStepList.size();
+        if (stepPosition < 0 || stepPosition >= stepCount) {
+            throw new IndexOutOfBoundsException(String.format("Invalid step position %d. The list of steps has %d items", stepPosition, stepCount));
+        }
+        if (!mIsScrollable) {
+            return this;
+        }
+        if (getViewportSize() == 0 || isLayoutRequested()) {
+            mPendingScrollStep = stepPosition;
+        } else {
+            mScroller.smoothScrollTo(getCenteredScrollPosition(stepPosition));
+        }
+
+        return this;
+    }
+
+    /**
+     * Scrolls the steps so that the first step in the {@link com.vinay.stepview.models.Step.State#CURRENT CURRENT}
+     * state is centered in the view. Does nothing if no step is current.
+     *
+     * @return The current {@link StepView} instance, for chaining
+     * @see #scrollToStep(int)
+     */
+    public StepView scrollToCurrentStep() {
+        if (mStepList != null) {
+            for (int i = 0; i < mStepList.size(); i++) {
+                if (StepListAccess.getState(mStepList, i) == Step.State.CURRENT) {
+                    return scrollToStep(i);
+                }
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Returns the scroll position at which the step at the given position is centered in the view
+     */
+    private int getCenteredScrollPosition(int stepPosition) {
+        final StepLayoutEngine layout = mStepViewIndicator.getLayoutEngine();
+        if (stepPosition >= layout.getStepCount()) {
+            return getScrollPosition();
+        }
+        return (int) (layout.getCenter(stepPosition) - getViewportSize() / 2f);
+    }
+
+    /**
+     * Returns the current scroll position along the main axis
+     *
+     * @return Scroll position, in pixels
+     */
+    int getScrollPosition() {
+        return isVertical() ? getScrollY() : getScrollX();
+    }
+
+    /**
+     * Scrolls the steps to the given position along the main axis, clamped to the size of the content
+     *
+     * @param scrollPosition - Scroll position, in pixels
+     */
+    void setScrollPosition(int scrollPosition) {
+        final int position = Math.max(0, Math.min(scrollPosition, getMaxScrollPosition()));
+        if (isVertical()) {
+            scrollTo(getScrollX(), position);
+        } else {
+            scrollTo(position, getScrollY());
+        }
+    }
+
+    /**
+     * Returns the maximum scroll position along the main axis, which is zero unless the StepView
+     * is scrollable and its steps do not fit in it.
+     *
+     * @return Maximum scroll position, in pixels
+     */
+    int getMaxScrollPosition() {
+        if (!mIsScrollable || getChildCount() == 0) {
+            return 0;
+        }
+        return Math.max(0, getContentSize() - getViewportSize());
+    }
+
+    /**
+     * Returns the size of the StepView along the main axis
+     */
+    int getViewportSize() {
+        return isVertical() ? getHeight() : getWidth();
+    }
+
+    /**
+     * Returns the size of the steps and their labels along the main axis
+     */
+    private int getContentSize() {
+        return isVertical() ? getChildAt(0).getHeight() : getChildAt(0).getWidth();
+    }
+
+    /**
+     * Updates the range of steps that are drawn and labelled after a scroll or a size change
      */
-    abstract protected void updateView();
+    private void onViewportChanged() {
+        if (mIsScrollable) {
+            final int scrollPosition = getScrollPosition();
+            mStepViewIndicator.setViewport(scrollPosition, scrollPosition + getViewportSize());
+        } else {
+            mStepViewIndicator.clearViewport();
+        }
+        updateView();
+    }
 
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        if (mMetrics == null) {
+            measureSteps(widthMeasureSpec, heightMeasureSpec);
+            return;
+        }
+        final long startNanos = System.nanoTime();
+        measureSteps(widthMeasureSpec, heightMeasureSpec);
+        mMetrics.onMeasure(this, System.nanoTime() - startNanos);
+    }
 
     /**
-     * Ensures that the number of cached {@link TextView}s is equal to the number of steps
+     * Measures the StepView, as {@link #onMeasure(int, int)} does
+     *
+     * @param widthMeasureSpec  - Horizontal space requirements as imposed by the parent
+     * @param heightMeasureSpec - Vertical space requirements as imposed by the parent
+     */
+    void measureSteps(int widthMeasureSpec, int heightMeasureSpec) {
+        if (!mIsScrollable) {
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+            return;
+        }
+        final boolean isVertical = isVertical();
+        final int unspecified = MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
+        // Measure the steps without any bound along the main axis, as a ScrollView does
+        super.onMeasure(isVertical ? widthMeasureSpec : unspecified, isVertical ? unspecified : heightMeasureSpec);
+
+        final int mainAxisSpec = isVertical ? heightMeasureSpec : widthMeasureSpec;
+        final int contentSize = isVertical ? getMeasuredHeight() : getMeasuredWidth();
+        final int viewportSize = resolveSize(contentSize, mainAxisSpec);
+        if (contentSize < viewportSize) {
+            // The steps fit: let them fill the StepView, as they would if it were not scrollable
+            final int exactly = MeasureSpec.makeMeasureSpec(viewportSize, MeasureSpec.EXACTLY);
+            super.onMeasure(isVertical ? widthMeasureSpec : exactly, isVertical ? exactly : heightMeasureSpec);
+        }
+        if (isVertical) {
+            setMeasuredDimension(getMeasuredWidth(), viewportSize);
+        } else {
+            setMeasuredDimension(viewportSize, getMeasuredHeight());
+        }
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        if (mMetrics == null) {
+            layoutSteps(changed, l, t, r, b);
+            return;
+        }
+        final long startNanos = System.nanoTime();
+        layoutSteps(changed, l, t, r, b);
+        mMetrics.onLayout(this, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Lays out the StepView, as {@link #onLayout(boolean, int, int, int, int)} does
+     *
+     * @param changed - Whether this is a new size or position for this view
+     * @param l       - Left position, relative to parent
+     * @param t       - Top position, relative to parent
+     * @param r       - Right position, relative to parent
+     * @param b       - Bottom position, relative to parent
+     */
+    void layoutSteps(boolean changed, int l, int t, int r, int b) {
+        super.onLayout(changed, l, t, r, b);
+        if (mIsScrollable) {
+            if (mPendingScrollStep >= 0) {
+                final int pendingScrollStep = mPendingScrollStep;
+                mPendingScrollStep = -1;
+                if (mStepList != null && pendingScrollStep < mStepList.size()) {
+                    setScrollPosition(getCenteredScrollPosition(pendingScrollStep));
+                }
+            } else {
+                // The content may have shrunk
+                setScrollPosition(getScrollPosition());
+            }
+            onViewportChanged();
+        }
+    }
+
+    @Override
+    protected void onScrollChanged(int l, int t, int oldl, int oldt) {
+        super.onScrollChanged(l, t, oldl, oldt);
+        if (mIsScrollable) {
+            onViewportChanged();
+        }
+    }
+
+    @Override
+    public void computeScroll() {
+        if (mIsScrollable) {
+            mScroller.computeScroll();
+        }
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent event) {
+        if (mIsScrollable && mScroller.onInterceptTouchEvent(event)) {
+            return true;
+        }
+        return super.onInterceptTouchEvent(event);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (mIsScrollable && mScroller.onTouchEvent(event)) {
+            return true;
+        }
+        return super.onTouchEvent(event);
+    }
+
+    @Override
+    protected int computeVerticalScrollRange() {
+        if (mIsScrollable && isVertical() && getChildCount() > 0) {
+            return getContentSize();
+        }
+        return super.computeVerticalScrollRange();
+    }
+
+    @Override
+    protected int computeHorizontalScrollRange() {
+        if (mIsScrollable && !isVertical() && getChildCount() > 0) {
+            return getContentSize();
+        }
+        return super.computeHorizontalScrollRange();
+    }
+
+    /**
+     * Brings the {@link TextView}s that display the {@link Step} text up to date.
+     * <p>
+     * Only the parts of the labels that were marked dirty since the last update are re-bound:
+     * <ul>
+     * <li>{@link #DIRTY_CONTENT} - the text, size and typeface are set and the label is re-measured</li>
+     * <li>{@link #DIRTY_COLOR} - only the text color is set</li>
+     * <li>{@link #DIRTY_POSITION} - the label is moved, which does not require a layout pass</li>
+     * </ul>
+     * When none of these flags is set, only the labels of the steps in {@link #mDirtySteps} are
+     * re-bound. The labels are positioned again whenever the geometry of the {@link StepViewIndicator} has
+     * changed. When nothing is dirty, this method returns without touching the labels, so it is
+     * safe to invoke when the {@link StepViewIndicator} redraws itself.
+     * <p>
+     * When the labels are drawn on the canvas of the {@link StepViewIndicator}, there are no
+     * TextViews, and only the cached layouts of the dirty labels are discarded.
+     */
+    protected void updateView() {
+        if (mBatchDepth > 0) {
+            return;
+        }
+        StepLabelRenderer labelRenderer = mStepViewIndicator.getLabelRenderer();
+        if (labelRenderer != null) {
+            updateCanvasLabels(labelRenderer);
+            return;
+        }
+        StepLayoutEngine layout = mStepViewIndicator.getLayoutEngine();
+        if (layout.getVersion() != mLabelLayoutVersion) {
+            mDirtyFlags |= DIRTY_POSITION;
+        }
+        if (mStepList == null || mStepList.isEmpty()) {
+            ensureTextViewCount(0);
+            return;
+        }
+        if (layout.getStepCount() != mStepList.size()) {
+            return;
+        }
+        final boolean windowChanged = updateLabelWindow(layout);
+        if (mDirtyFlags == 0 && mDirtySteps.isEmpty() && !windowChanged) {
+            return;
+        }
+
+        final long startNanos = mMetrics != null ? System.nanoTime() : 0;
+        final int measureCount = LabelMeasureCache.getMeasureCount();
+        mBoundLabelCount = 0;
+        final int dirtyFlags = mDirtyFlags;
+        if (dirtyFlags != 0 || windowChanged) {
+            for (int i = mLabelWindowStart; i < mLabelWindowEnd; i++) {
+                updateLabel(layout, i, dirtyFlags | (mDirtySteps.get(i) ? DIRTY_CONTENT : 0));
+            }
+        } else {
+            for (int i = mDirtySteps.nextSetBit(mLabelWindowStart); i >= 0 && i < mLabelWindowEnd; i = mDirtySteps.nextSetBit(i + 1)) {
+                updateLabel(layout, i, DIRTY_CONTENT);
+            }
+        }
+        mDirtyFlags = 0;
+        mDirtySteps.clear();
+        mLabelLayoutVersion = layout.getVersion();
+        if (mMetrics != null && mBoundLabelCount > 0) {
+            mMetrics.onLabelsBound(this, mBoundLabelCount, LabelMeasureCache.getMeasureCount() - measureCount, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Brings the labels drawn by the {@link StepViewIndicator} up to date. The labels of the steps in
+     * {@link #mDirtySteps} have already been discarded by {@link StepViewIndicator#invalidateStep(int)}.
+     */
+    private void updateCanvasLabels(StepLabelRenderer labelRenderer) {
+        ensureTextViewCount(0);
+        final float textSizePx = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, mTextSize, getResources().getDisplayMetrics());
+        if (labelRenderer.setStyle(textSizePx, mNotCompletedStepTextColor, mCompletedStepTextColor, mCurrentStepTextColor)) {
+            mStepViewIndicator.requestLayout(); // The labels take more or less room
+        }
+        if ((mDirtyFlags & (DIRTY_CONTENT | DIRTY_COLOR)) != 0) {
+            labelRenderer.invalidateAll();
+            mStepViewIndicator.invalidateContent();
+        }
+        // Steps marked dirty while the geometry was recomputed were not invalidated by the indicator
+        for (int i = mDirtySteps.nextSetBit(0); i >= 0; i = mDirtySteps.nextSetBit(i + 1)) {
+            labelRenderer.invalidateStep(i);
+        }
+        mDirtyFlags = 0;
+        mDirtySteps.clear();
+    }
+
+    /**
+     * Marks the step at the given position as changed, without changing the number of steps.
+     * Only the label of that step is re-bound, and only the region of the
+     * {@link StepViewIndicator} around that step is redrawn.
+     *
+     * @param stepPosition - The integer position of the step that changed
+     */
+    void onStepChanged(int stepPosition) {
+        mDirtySteps.set(stepPosition);
+        recordStep(stepPosition);
+        dispatchChanges();
+    }
+
+    /**
+     * Marks the list of steps as changed: steps may have been added, removed or replaced.
+     * All the labels are re-bound and the whole {@link StepViewIndicator} is redrawn.
+     */
+    void onStepsChanged() {
+        mDirtyFlags |= DIRTY_CONTENT;
+        mStepsChanged = true;
+        recordSteps();
+        dispatchChanges();
+    }
+
+    /**
+     * Applies the pending changes to the {@link StepViewIndicator} and the labels, unless a batch
+     * is in progress, in which case they are applied when the outermost batch ends.
+     */
+    private void dispatchChanges() {
+        if (mBatchDepth > 0) {
+            return;
+        }
+        final long startNanos = mMetrics != null ? System.nanoTime() : 0;
+        final boolean wasLayoutRequested = isLayoutRequested();
+        final int invalidatedStepCount;
+        if (mStepsChanged) {
+            mStepsChanged = false;
+            if ((mDirtyFlags & DIRTY_CONTENT) != 0) {
+                mDirtySteps.clear(); // All the labels are re-bound anyway
+            } else {
+                // Only the labels of the steps that moved or changed are re-bound, see diffSteps()
+                StepLabelRenderer labelRenderer = mStepViewIndicator.getLabelRenderer();
+                for (int i = mDirtySteps.nextSetBit(0); labelRenderer != null && i >= 0; i = mDirtySteps.nextSetBit(i + 1)) {
+                    labelRenderer.invalidateStep(i);
+                }
+            }
+            mStepViewIndicator.setSteps(mStepList);
+            invalidatedStepCount = mStepList == null ? 0 : mStepList.size();
+        } else {
+            // Invalidating a step may bring the labels up to date, which clears mDirtySteps
+            invalidatedStepCount = mDirtySteps.cardinality();
+            for (int i = mDirtySteps.nextSetBit(0); i >= 0; i = mDirtySteps.nextSetBit(i + 1)) {
+                mStepViewIndicator.invalidateStep(i);
+            }
+        }
+        updateView();
+        if (mMetrics != null) {
+            mMetrics.onStepsInvalidated(this, invalidatedStepCount, !wasLayoutRequested && isLayoutRequested(),
+                    System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Re-binds the dirty parts of the label of the step at the given position.
+     * A {@link TextView} that was displaying another step is fully re-bound.
+     */
+    private void updateLabel(StepLayoutEngine layout, int stepPosition, int dirtyFlags) {
+        final int slot = stepPosition % mTextViewList.size();
+        if (mLabelSteps[slot] != stepPosition) {
+            mLabelSteps[slot] = stepPosition;
+            dirtyFlags = DIRTY_CONTENT | DIRTY_COLOR | DIRTY_POSITION;
+        }
+        if (dirtyFlags == 0) {
+            return;
+        }
+        final Step.State state = StepListAccess.getState(mStepList, stepPosition);
+        TextView textView = mTextViewList.get(slot);
+
+        if ((dirtyFlags & DIRTY_CONTENT) != 0) {
+            mLabelWidths[slot] = bindLabelContent(textView, StepListAccess.getName(mStepList, stepPosition), state);
+            mBoundLabelCount++;
+        }
+        if ((dirtyFlags & (DIRTY_CONTENT | DIRTY_COLOR)) != 0) {
+            final int textColor = getStepTextColor(state);
+            if (textView.getCurrentTextColor() != textColor) {
+                textView.setTextColor(textColor); // Allocates a ColorStateList
+            }
+        }
+        positionLabel(textView, mLabelWidths[slot], layout.getCenter(stepPosition), stepPosition);
+    }
+
+    /**
+     * Moves the {@link TextView} that displays the text of the step at the given position, based
+     * on the geometry computed by the {@link StepViewIndicator}. The TextView may not have been
+     * measured yet, so its width is given by the label measurement cache.
+     * <p>
+     * This must be implemented by derived classes to control the direction of the TextViews.
+     * Implementations must only move the TextView (e.g. with {@link TextView#setX(float)}) and
+     * never request a layout pass.
+     *
+     * @param textView     - The {@link TextView} of the step
+     * @param labelWidth   - The width, in pixels, of the TextView
+     * @param stepCenter   - The center of the step along the direction of the steps, in pixels
+     * @param stepPosition - The integer position of the step
+     */
+    protected abstract void positionLabel(@NonNull TextView textView, int labelWidth, float stepCenter, int stepPosition);
+
+    /**
+     * Computes the range of steps that have a label, and makes sure that there is one
+     * {@link TextView} for each of them.
+     * <p>
+     * Unless the StepView is scrollable, every step has a label. Otherwise, only the steps in the
+     * viewport plus {@link #LABEL_PREFETCH_STEPS} on either side have a label. The TextViews are
+     * recycled: the label of the step at position <code>p</code> is always the TextView at index
+     * <code>p % count</code>, so when the range moves by a few steps, only the TextViews of the
+     * steps that entered the range are re-bound.
+     *
+     * @return true if the range of steps that have a label has changed
+     */
+    private boolean updateLabelWindow(StepLayoutEngine layout) {
+        final int stepCount = mStepList.size();
+        int windowStart = 0;
+        int windowSize = stepCount;
+        final int viewportSize = getViewportSize();
+        if (mIsScrollable && (viewportSize <= 0 || layout.getPitch() <= 0)) {
+            windowSize = 0; // Not laid out yet
+        } else if (mIsScrollable) {
+            final int scrollPosition = getScrollPosition();
+            final int startStep = layout.getStepAt(scrollPosition);
+            final int endStep = layout.getStepAt(scrollPosition + viewportSize);
+            windowSize = Math.min(stepCount, (int) Math.ceil(viewportSize / layout.getPitch()) + 1 + 2 * LABEL_PREFETCH_STEPS);
+            windowStart = Math.min(Math.min(startStep, endStep) - LABEL_PREFETCH_STEPS, stepCount - windowSize);
+            windowStart = Math.max(windowStart, 0);
+        }
+        ensureTextViewCount(windowSize);
+        if (windowStart == mLabelWindowStart && windowStart + windowSize == mLabelWindowEnd) {
+            return false;
+        }
+        mLabelWindowStart = windowStart;
+        mLabelWindowEnd = windowStart + windowSize;
+        return true;
+    }
+
+    /**
+     * Sets the text, size and typeface of a label. Each property is only set when it differs, so
+     * that an unchanged label does not request a layout pass.
+     * <p>
+     * The label is not measured by the TextView: its width is looked up in the
+     * {@link LabelMeasureCache} shared by all StepViews.
+     *
+     * @return The width of the label, in pixels
+     */
+    private int bindLabelContent(TextView textView, String name, Step.State state) {
+        final float textSizePx = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, mTextSize, getResources().getDisplayMetrics());
+        if (textView.getTextSize() != textSizePx) {
+            textView.setTextSize(TypedValue.COMPLEX_UNIT_SP, mTextSize);
+        }
+        if (!TextUtils.equals(textView.getText(), name)) {
+            textView.setText(name);
+        }
+        final boolean isBold = state == Step.State.CURRENT;
+        final int typefaceStyle = isBold ? Typeface.BOLD : Typeface.NORMAL;
+        final Typeface typeface = textView.getTypeface();
+        if (typeface == null || typeface.getStyle() != typefaceStyle) {
+            textView.setTypeface(null, typefaceStyle);
+        }
+
+        Configuration configuration = getResources().getConfiguration();
+        LabelMeasureCache.LabelSize size = LabelMeasureCache.measure(name,
+                textView.getTextSize(),
+                isBold ? Typeface.DEFAULT_BOLD : Typeface.DEFAULT,
+                LabelMeasureCache.getLocale(configuration),
+                configuration.fontScale);
+        return size.width + textView.getPaddingLeft() + textView.getPaddingRight();
+    }
+
+    /**
+     * Returns the text color used for steps in the given state
+     */
+    private int getStepTextColor(Step.State state) {
+        switch (state) {
+            case CURRENT:
+                return mCurrentStepTextColor;
+            case COMPLETED:
+                return mCompletedStepTextColor;
+            default:
+                return mNotCompletedStepTextColor;
+        }
+    }
+
+    /**
+     * Ensures that the number of cached {@link TextView}s is equal to the given count
      * <ol>
-     * <li>When there are no steps, it clears all cached TextViews</li>
-     * <li>When the number of steps is greater, it creates additional TextViews</li>
+     * <li>When the count is zero, it clears all cached TextViews</li>
+     * <li>When the count is greater, it creates additional TextViews</li>
      * <li>When the number of TextViews is greater, it removes the extraneous TextViews</li>
      * </ol>
+     * When the number of TextViews changes, all of them must be re-bound.
+     *
+     * @param count - The number of TextViews needed
      */
-    private void ensureTextViewCount() {
-        int stepCount = mStepList == null ? 0 : mStepList.size();
+    private void ensureTextViewCount(int count) {
         int textViewCount = mTextViewList.size();
-        int delta = textViewCount - stepCount;
-        if (stepCount == 0) { // All steps have been removed, or mStepsList is null
+        int delta = textViewCount - count;
+        if (delta == 0) {
+            return;
+        }
+        if (count == 0) { // All steps have been removed, or mStepsList is null
             mTextContainer.removeAllViews();
             mTextViewList.clear();
         } else if (delta < 0) { // More TextViews are needed
-            for (int i = textViewCount; i < stepCount; i++) {
+            for (int i = textViewCount; i < count; i++) {
                 TextView textView = new TextView(getContext());
                 mTextViewList.add(textView);
                 mTextContainer.addView(textView);
             }
-        } else if (delta > 0) { // Some TextViews are unnecessary
-            mTextContainer.removeViews(stepCount, delta);
-            mTextViewList.removeAll(mTextViewList.subList(stepCount, textViewCount));
+        } else { // Some TextViews are unnecessary
+            mTextContainer.removeViews(count, delta);
+            mTextViewList.subList(count, textViewCount).clear();
+        }
+        if (mLabelSteps.length < count) {
+            mLabelSteps = Arrays.copyOf(mLabelSteps, count);
+            mLabelWidths = Arrays.copyOf(mLabelWidths, count);
+        }
+        // A TextView keeps its step if it is still the TextView of that step, see updateLabel()
+        for (int slot = 0; slot < count; slot++) {
+            if (slot >= textViewCount || mLabelSteps[slot] < 0 || mLabelSteps[slot] % count != slot) {
+                mLabelSteps[slot] = -1;
+            }
+        }
+        mLabelWindowStart = mLabelWindowEnd = 0;
+    }
+
+    /**
+     * Queues changes to the steps of a {@link StepView} and applies them in a single pass.
+     * <p>
+     * Changes are applied in the order in which they were queued, so positions refer to the list of
+     * steps as modified by the preceding changes. They replace the {@link StepList} displayed
+     * with modified copies, or modify the {@link StepStateBuffer} given to {@link #setSteps(List)}.
+     *
+     * @see StepView#edit()
+     */
+    public final class Editor {
+
+        private static final int CHANGE_STATE = 0;
+        private static final int CHANGE_NAME = 1;
+        private static final int CHANGE_ADD = 2;
+        private static final int CHANGE_REMOVE = 3;
+        private static final int CHANGE_APPEND = 4;
+
+        private final List<Change> mChanges = new ArrayList<>();
+
+        Editor() {
+        }
+
+        /**
+         * Queues a change of the state of the step at the given position
+         *
+         * @param stepPosition - The integer position of the step
+         * @param state        - The new {@link com.vinay.stepview.models.Step.State State} of the step
+         * @return The current {@link Editor} instance for chaining
+         */
+        public Editor setState(int stepPosition, @NonNull Step.State state) {
+            mChanges.add(new Change(CHANGE_STATE, stepPosition, state, null, null));
+            return this;
+        }
+
+        /**
+         * Queues a change of the name of the step at the given position
+         *
+         * @param stepPosition - The integer position of the step
+         * @param name         - The new name of the step
+         * @return The current {@link Editor} instance for chaining
+         */
+        public Editor setName(int stepPosition, @NonNull String name) {
+            mChanges.add(new Change(CHANGE_NAME, stepPosition, null, name, null));
+            return this;
+        }
+
+        /**
+         * Queues the insertion of a step at the end of the list
+         *
+         * @param step - The {@link Step} to be added
+         * @return The current {@link Editor} instance for chaining
+         */
+        public Editor add(@NonNull Step step) {
+            mChanges.add(new Change(CHANGE_APPEND, -1, null, null, step));
+            return this;
+        }
+
+        /**
+         * Queues the insertion of a step at the given position
+         *
+         * @param stepPosition - The integer position at which the step is inserted, which may be the
+         *                     number of steps to append it
+         * @param step         - The {@link Step} to be inserted
+         * @return The current {@link Editor} instance for chaining
+         */
+        public Editor add(int stepPosition, @NonNull Step step) {
+            mChanges.add(new Change(CHANGE_ADD, stepPosition, null, null, step));
+            return this;
+        }
+
+        /**
+         * Queues the removal of the step at the given position
+         *
+         * @param stepPosition - The integer position of the step to be removed
+         * @return The current {@link Editor} instance for chaining
+         */
+        public Editor remove(int stepPosition) {
+            mChanges.add(new Change(CHANGE_REMOVE, stepPosition, null, null, null));
+            return this;
+        }
+
+        /**
+         * Applies all the queued changes with a single redraw of the indicator and a single update
+         * of the labels. The queue is cleared, so the Editor can be reused.
+         * <p>
+         * The positions of all the changes are checked before any change is applied, each against
+         * the number of steps left by the changes queued before it, so that either all the changes
+         * are applied or none is.
+         *
+         * @return The {@link StepView} instance that was edited
+         * @throws NullPointerException      if the list of steps is null
+         * @throws IndexOutOfBoundsException if a position is negative or exceeds the size of the list
+         */
+        public StepView commit() {
+            if (mStepList == null) {
+                mChanges.clear();
+                throw new NullPointerException("Invalid attempt to commit changes. List of steps is null. Did you forget to call setSteps()?");
+            }
+            try {
+                checkPositions();
+            } catch (IndexOutOfBoundsException e) {
+                mChanges.clear();
+                throw e;
+            }
+            beginBatch();
+            try {
+                for (int i = 0; i < mChanges.size(); i++) {
+                    apply(mChanges.get(i));
+                }
+            } finally {
+                mChanges.clear();
+                endBatch();
+            }
+
+            return StepView.this;
+        }
+
+        /**
+         * Checks the position of each queued change against the number of steps there will be
+         * when it is applied
+         */
+        private void checkPositions() {
+            int stepCount = mStepList.size();
+            for (int i = 0; i < mChanges.size(); i++) {
+                final Change change = mChanges.get(i);
+                switch (change.type) {
+                    case CHANGE_APPEND:
+                        stepCount++;
+                        break;
+                    case CHANGE_ADD:
+                        checkPosition(change.position, stepCount + 1, stepCount);
+                        stepCount++;
+                        break;
+                    case CHANGE_REMOVE:
+                        checkPosition(change.position, stepCount, stepCount);
+                        stepCount--;
+                        break;
+                    default:
+                        checkPosition(change.position, stepCount, stepCount);
+                        break;
+                }
+            }
+        }
+
+        private void checkPosition(int stepPosition, int positionCount, int stepCount) {
+            if (stepPosition < 0 || stepPosition >= positionCount) {
+                throw new IndexOutOfBoundsException(String.format("Invalid step position %d. The list of steps has %d items", stepPosition, stepCount));
+            }
+        }
+
+        private void apply(Change change) {
+            if (change.type == CHANGE_ADD || change.type == CHANGE_APPEND) {
+                final int position = change.type == CHANGE_APPEND ? mStepList.size() : change.position;
+                if (mStepList instanceof StepList) {
+                    mStepList = ((StepList) mStepList).withAdded(position, change.step);
+                } else {
+                    mStepList.add(position, change.step);
+                }
+                onStepsChanged();
+                return;
+            }
+            switch (change.type) {
+                case CHANGE_STATE:
+                    final Step.State previousState = StepListAccess.getState(mStepList, change.position);
+                    setStateAt(change.position, change.state);
+                    mStepViewIndicator.startTransition(change.position, previousState, change.state);
+                    onStepChanged(change.position);
+                    break;
+                case CHANGE_NAME:
+                    setNameAt(change.position, change.name);
+                    onStepChanged(change.position);
+                    break;
+                case CHANGE_REMOVE:
+                    if (mStepList instanceof StepList) {
+                        mStepList = ((StepList) mStepList).withRemoved(change.position);
+                    } else {
+                        mStepList.remove(change.position);
+                    }
+                    onStepsChanged();
+                    break;
+            }
+        }
+    }
+
+    /**
+     * A single change queued by an {@link Editor}
+     */
+    private static final class Change {
+        final int type;
+        final int position;
+        final Step.State state;
+        final String name;
+        final Step step;
+
+        Change(int type, int position, Step.State state, String name, Step step) {
+            this.type = type;
+            this.position = position;
+            this.state = state;
+            this.name = name;
+            this.step = step;
         }
     }
 }
@@ -1,40 +1,96 @@
 package com.vinay.stepview;
 
 import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.DashPathEffect;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
+import android.os.Build;
+import androidx.annotation.DrawableRes;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.content.res.AppCompatResources;
+import android.text.Layout;
 import android.util.AttributeSet;
-import android.util.DisplayMetrics;
-import android.util.Log;
 import android.util.TypedValue;
 import android.view.View;
 
 import com.vinay.stepview.models.Step;
 
-import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 abstract class StepViewIndicator extends View {
 
     interface onUpdateIndicatorListener {
+        /**
+         * Invoked when the geometry of the steps has changed
+         */
         void onIndicatorUpdated();
+
+        /**
+         * Invoked after the indicator was drawn, if draw timing is enabled
+         *
+         * @param durationNanos Duration of the draw pass, in nanoseconds
+         * @see #setDrawTimingEnabled(boolean)
+         */
+        void onIndicatorDrawn(long durationNanos);
+
+        /**
+         * Invoked on each frame of the transition of a step from one state to another, and once
+         * with a fraction of 1 when the transition ends
+         *
+         * @param stepPosition Position of the step
+         * @param fromState    State the step is animated from
+         * @param toState      State the step is animated to, which is its current state
+         * @param fraction     Progress of the transition, from 0 to 1
+         * @see #setTransitionDuration(long)
+         */
+        void onStepTransition(int stepPosition, @NonNull Step.State fromState, @NonNull Step.State toState, float fraction);
     }
 
+    private static final String TAG = "StepViewIndicator";
+
     final int DEFAULT_STEP_INDICATOR_DIMENSION = (int) convertDpToPx(40);
 
+    /**
+     * Distance, in pixels, between the step icons and the labels drawn by {@link #mLabelRenderer}
+     * in a {@link VerticalStepViewIndicator}
+     */
+    final int LABEL_MARGIN = (int) convertDpToPx(16);
+
+    /**
+     * Distance, in pixels, by which completed lines extend beneath the step icons
+     */
+    static final int LINE_OVERLAP = 10;
+
+    // Values of the sv_notCompletedLineType attribute
+    private static final int LINE_TYPE_DASHED = 0;
+    private static final int LINE_TYPE_SOLID = 1;
+
     float mCompletedLineHeight; // completed line height
     float mCircleRadius; // Step circle radius
 
-    Drawable mCompletedStepIcon; // Drawable/icon used for a completed step
-    Drawable mCurrentStepIcon; // Drawable/icon used for the current step
-    Drawable mNotCompletedStepIcon; // Drawable/icon used for a not completed (default) step
+    Drawable mCompletedStepIcon; // Drawable/icon used for a completed step, or null to use the icon resource
+    Drawable mCurrentStepIcon; // Drawable/icon used for the current step, or null to use the icon resource
+    Drawable mNotCompletedStepIcon; // Drawable/icon used for a not completed (default) step, or null to use the icon resource
+
+    // Icons used when no drawable is set, see StepIconCache
+    @DrawableRes int mCompletedStepIconRes = R.drawable.ic_completed;
+    @DrawableRes int mCurrentStepIconRes = R.drawable.ic_current;
+    @DrawableRes int mNotCompletedStepIconRes = R.drawable.ic_not_completed;
+
+    // Icons rasterized at mIconSize by StepIconCache, or null if they must be resolved
+    Bitmap mCompletedIconBitmap;
+    Bitmap mCurrentIconBitmap;
+    Bitmap mNotCompletedIconBitmap;
+    int mIconSize; // Width and height of the rasterized icons, in pixels
+    final Paint mIconPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
 
     Paint mNotCompletedLinePaint; // Style of line leading to a not-completed step
     Paint mCompletedLinePaint; // Style of line leading to a completed step
@@ -43,11 +99,20 @@ abstract class StepViewIndicator extends View {
     int mCompletedLineColor = Color.WHITE; // Default color of a completed line
     float mLineLength; // Default spacing between circles of two steps
 
-    List<Float> mCircleCenterPointPositionList; // List of center points of all circles
+    final StepLayoutEngine mLayoutEngine = new StepLayoutEngine(); // Geometry of step circles and lines
     List<Step> mStepList; // List of steps
 
-    Path mPath; // Path of lines leading to not-completed steps
-    final Rect mRect = new Rect(); // The bounding rectangle of the Step icon/drawables
+    float[] mCompletedLinePoints = new float[0]; // Segments of the lines leading to completed steps
+    int mCompletedLinePointCount; // Number of valid values in mCompletedLinePoints
+    float[] mNotCompletedLinePoints = new float[0]; // Segments of the solid lines leading to not-completed steps
+    int mNotCompletedLinePointCount; // Number of valid values in mNotCompletedLinePoints
+    final Path mDashedLinePath = new Path(); // Dashed lines leading to not-completed steps
+    boolean mLinesDirty = true; // Whether the lines must be rebuilt, see updateLines()
+    int mLinesLayoutVersion = -1; // Version of the geometry the lines were built against
+    int mLinesFirstStep; // First drawn step when the lines were built
+    int mLinesLastStep = -1; // Last drawn step when the lines were built
+    final BitSet mCompletedLines = new BitSet(); // Lines built as leading to a completed step
+    final Rect mDirtyRect = new Rect(); // The region to redraw when a single step changes
 
     boolean mNotCompletedLineType = true;
 
@@ -60,6 +125,48 @@ abstract class StepViewIndicator extends View {
 
     onUpdateIndicatorListener mUpdateIndicatorListener;
 
+    /**
+     * Whether only the steps within [{@link #mViewportStart}, {@link #mViewportEnd}] are drawn.
+     * This is set when the wrapper {@link StepView} scrolls the indicator itself.
+     */
+    boolean mHasViewport;
+    float mViewportStart; // Start of the visible range along the main axis, in pixels
+    float mViewportEnd; // End of the visible range along the main axis, in pixels
+
+    int mFirstDrawnStep; // Position of the first step drawn by the current frame
+    int mLastDrawnStep; // Position of the last step drawn by the current frame
+
+    /**
+     * Draws the names of the steps on the canvas of the indicator, or null if the wrapper
+     * {@link StepView} displays them with TextViews
+     */
+    StepLabelRenderer mLabelRenderer;
+
+    /**
+     * Whether the content of the indicator is drawn from {@link #mSnapshot}, see {@link #setSnapshotEnabled(boolean)}
+     */
+    boolean mIsSnapshotEnabled;
+    final StepViewSnapshot mSnapshot = new StepViewSnapshot();
+    int mSnapshotLayoutVersion = -1; // Version of the geometry the snapshot was recorded against
+    boolean mIsRecordingSnapshot; // Whether drawSteps() is drawing into the snapshot
+
+    /**
+     * View that measures, lays out and draws the indicator when the indicator is not part of the
+     * view hierarchy, or null. See {@link FlatStepView}.
+     */
+    View mHost;
+    private final Rect mHostDirtyRect = new Rect(); // mDirtyRect, in the coordinates of the host
+
+    boolean mIsDrawTimingEnabled; // Whether draw passes are timed, see setDrawTimingEnabled(boolean)
+
+    /**
+     * Animates the steps whose state changed, or null if state changes are not animated,
+     * see {@link #setTransitionDuration(long)}
+     */
+    StepTransitionAnimator mTransitions;
+    final float[] mTransitionLinePoints = new float[4]; // Segment of a solid line leading to a step in transition or in progress
+    final Path mTransitionLinePath = new Path(); // Dashed line leading to a step in transition
+
     private DashPathEffect mEffects;
 
     public StepViewIndicator(Context context) {
@@ -76,12 +183,17 @@ abstract class StepViewIndicator extends View {
     }
 
     /**
-     * Returns the drawable used for completed steps
+     * Returns the drawable used for completed steps. The icon resource is inflated the first time, and
+     * the indicator draws the returned drawable from then on, so changing it changes the icon.
      *
      * @return {@link Drawable}
      */
     @NonNull
     public Drawable getCompletedStepIcon() {
+        if (mCompletedStepIcon == null) {
+            mCompletedStepIcon = inflateStepIcon(mCompletedStepIconRes);
+            mCompletedIconBitmap = null;
+        }
         return mCompletedStepIcon;
     }
 
@@ -91,16 +203,23 @@ abstract class StepViewIndicator extends View {
      * @param completedStepIcon {@link Drawable}
      */
     public void setCompletedStepIcon(@NonNull Drawable completedStepIcon) {
-        mCompletedStepIcon = completedStepIcon;
+        mCompletedStepIcon = attachStepIcon(mCompletedStepIcon, completedStepIcon);
+        mCompletedIconBitmap = null;
+        invalidateContent();
     }
 
     /**
-     * Returns the drawable used for steps that are not completed
+     * Returns the drawable used for steps that are not completed. The icon resource is inflated the first time, and
+     * the indicator draws the returned drawable from then on, so changing it changes the icon.
      *
      * @return {@link Drawable}
      */
     @NonNull
     public Drawable getNotCompletedStepIcon() {
+        if (mNotCompletedStepIcon == null) {
+            mNotCompletedStepIcon = inflateStepIcon(mNotCompletedStepIconRes);
+            mNotCompletedIconBitmap = null;
+        }
         return mNotCompletedStepIcon;
     }
 
@@ -110,16 +229,23 @@ abstract class StepViewIndicator extends View {
      * @param notCompletedStepIcon {@link Drawable}
      */
     public void setNotCompletedStepIcon(@NonNull Drawable notCompletedStepIcon) {
-        mNotCompletedStepIcon = notCompletedStepIcon;
+        mNotCompletedStepIcon = attachStepIcon(mNotCompletedStepIcon, notCompletedStepIcon);
+        mNotCompletedIconBitmap = null;
+        invalidateContent();
     }
 
     /**
-     * Returns the drawable used for the current step
+     * Returns the drawable used for the current step. The icon resource is inflated the first time, and
+     * the indicator draws the returned drawable from then on, so changing it changes the icon.
      *
      * @return {@link Drawable}
      */
     @NonNull
     public Drawable getCurrentStepIcon() {
+        if (mCurrentStepIcon == null) {
+            mCurrentStepIcon = inflateStepIcon(mCurrentStepIconRes);
+            mCurrentIconBitmap = null;
+        }
         return mCurrentStepIcon;
     }
 
@@ -129,7 +255,156 @@ abstract class StepViewIndicator extends View {
      * @param currentStepIcon {@link Drawable}
      */
     public void setCurrentStepIcon(@NonNull Drawable currentStepIcon) {
-        mCurrentStepIcon = currentStepIcon;
+        mCurrentStepIcon = attachStepIcon(mCurrentStepIcon, currentStepIcon);
+        mCurrentIconBitmap = null;
+        invalidateContent();
+    }
+
+    /**
+     * Inflates an icon resource for the application to change. It is not shared with the
+     * {@link StepIconCache}, and is rasterized by this indicator like an icon set by the application.
+     */
+    @NonNull
+    private Drawable inflateStepIcon(@DrawableRes int iconRes) {
+        // Mutated, so that changing it does not change the drawables inflated from the same resource
+        return attachStepIcon(null, AppCompatResources.getDrawable(getContext(), iconRes).mutate());
+    }
+
+    /**
+     * Makes the indicator the callback of a new icon, so that it is rasterized again when it
+     * changes, see {@link #invalidateDrawable(Drawable)}
+     *
+     * @param previousIcon Icon replaced, or null
+     * @param icon         New icon
+     * @return The new icon
+     */
+    @NonNull
+    private Drawable attachStepIcon(@Nullable Drawable previousIcon, @NonNull Drawable icon) {
+        if (previousIcon != null && previousIcon != icon && previousIcon.getCallback() == this) {
+            previousIcon.setCallback(null);
+        }
+        icon.setCallback(this);
+        return icon;
+    }
+
+    @Override
+    protected boolean verifyDrawable(@NonNull Drawable drawable) {
+        return drawable == mCompletedStepIcon || drawable == mCurrentStepIcon || drawable == mNotCompletedStepIcon
+                || super.verifyDrawable(drawable);
+    }
+
+    @Override
+    public void invalidateDrawable(@NonNull Drawable drawable) {
+        // Icons that are not live are rasterized once, so they are rasterized again when changed
+        final boolean isRasterizedOnce = !StepIconCache.isLive(drawable);
+        boolean isStepIcon = false;
+        if (drawable == mCompletedStepIcon) {
+            mCompletedIconBitmap = isRasterizedOnce ? null : mCompletedIconBitmap;
+            isStepIcon = true;
+        }
+        if (drawable == mCurrentStepIcon) {
+            mCurrentIconBitmap = isRasterizedOnce ? null : mCurrentIconBitmap;
+            isStepIcon = true;
+        }
+        if (drawable == mNotCompletedStepIcon) {
+            mNotCompletedIconBitmap = isRasterizedOnce ? null : mNotCompletedIconBitmap;
+            isStepIcon = true;
+        }
+        if (isStepIcon) {
+            invalidateContent();
+        } else {
+            super.invalidateDrawable(drawable);
+        }
+    }
+
+    /**
+     * Reads the attributes of the indicator from the attributes of the wrapper {@link StepView}.
+     * This is invoked once, from the constructor of the StepView, before the indicator is measured
+     * or drawn, so the fields are set directly without invalidating the indicator. Icons are kept
+     * as resources, so that they are only inflated if their bitmap is not in the {@link StepIconCache}.
+     *
+     * @param a {@link TypedArray} of the <code>StepView</code> styleable
+     */
+    void applyAttributes(@NonNull TypedArray a) {
+        mCompletedLineColor = a.getColor(R.styleable.StepView_sv_completedLineColor, mCompletedLineColor);
+        mNotCompletedLineColor = a.getColor(R.styleable.StepView_sv_notCompletedLineColor, mNotCompletedLineColor);
+        mNotCompletedLineType = a.getInt(R.styleable.StepView_sv_notCompletedLineType,
+                mNotCompletedLineType ? LINE_TYPE_DASHED : LINE_TYPE_SOLID) == LINE_TYPE_DASHED;
+        mLineLength = a.getDimension(R.styleable.StepView_sv_lineLength, mLineLength);
+        mCircleRadius = a.getDimension(R.styleable.StepView_sv_circleRadius, mCircleRadius);
+        mCompletedStepIconRes = a.getResourceId(R.styleable.StepView_sv_completedStepIcon, mCompletedStepIconRes);
+        mCurrentStepIconRes = a.getResourceId(R.styleable.StepView_sv_currentStepIcon, mCurrentStepIconRes);
+        mNotCompletedStepIconRes = a.getResourceId(R.styleable.StepView_sv_notCompletedStepIcon, mNotCompletedStepIconRes);
+        mIsReverseDraw = a.getBoolean(R.styleable.StepView_sv_reverse, mIsReverseDraw);
+        mIsSnapshotEnabled = a.getBoolean(R.styleable.StepView_sv_snapshot, mIsSnapshotEnabled);
+
+        updateNotCompleteLineType();
+    }
+
+    /**
+     * Brings the rasterized icons up to date with the icons and the circle radius. The icon
+     * resources are shared with other indicators through the {@link StepIconCache}, so most
+     * indicators never inflate or rasterize an icon. Icons set by the application are rasterized
+     * by each indicator, once, or on every draw if they are stateful or animated.
+     */
+    void resolveStepIcons() {
+        final int iconSize = Math.max(Math.round(mCircleRadius * 2), 1);
+        if (iconSize != mIconSize) {
+            mIconSize = iconSize;
+            mCompletedIconBitmap = mCurrentIconBitmap = mNotCompletedIconBitmap = null;
+        }
+        mCompletedIconBitmap = resolveStepIcon(mCompletedIconBitmap, mCompletedStepIcon, mCompletedStepIconRes, iconSize);
+        mCurrentIconBitmap = resolveStepIcon(mCurrentIconBitmap, mCurrentStepIcon, mCurrentStepIconRes, iconSize);
+        mNotCompletedIconBitmap = resolveStepIcon(mNotCompletedIconBitmap, mNotCompletedStepIcon, mNotCompletedStepIconRes, iconSize);
+    }
+
+    /**
+     * Returns the up-to-date bitmap of an icon
+     *
+     * @param bitmap   Current bitmap of the icon, or null if it must be resolved
+     * @param icon     Icon set by the application, or null to use the icon resource
+     * @param iconRes  Icon resource
+     * @param iconSize Width and height of the icon, in pixels
+     * @return Bitmap of the icon, which must not be modified
+     */
+    private Bitmap resolveStepIcon(@Nullable Bitmap bitmap, @Nullable Drawable icon, @DrawableRes int iconRes, int iconSize) {
+        if (icon == null) {
+            return bitmap != null ? bitmap : StepIconCache.getIcon(getContext(), iconRes, iconSize);
+        }
+        if (bitmap == null || StepIconCache.isLive(icon)) {
+            // The bitmap of an icon set by the application is never shared, so it can be drawn again
+            return StepIconCache.rasterize(icon, iconSize, bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Returns whether one of the icons set by the application is rasterized on every draw
+     *
+     * @return true if an icon is stateful or animated
+     */
+    private boolean hasLiveStepIcon() {
+        return (mCompletedStepIcon != null && StepIconCache.isLive(mCompletedStepIcon))
+                || (mCurrentStepIcon != null && StepIconCache.isLive(mCurrentStepIcon))
+                || (mNotCompletedStepIcon != null && StepIconCache.isLive(mNotCompletedStepIcon));
+    }
+
+    /**
+     * Returns the rasterized icon of a step in the given state. Must be called after {@link #resolveStepIcons()}.
+     *
+     * @param state State of the step
+     * @return Bitmap of the icon, which must not be modified
+     */
+    @NonNull
+    Bitmap getStepIcon(@NonNull Step.State state) {
+        switch (state) {
+            case COMPLETED:
+                return mCompletedIconBitmap;
+            case CURRENT:
+                return mCurrentIconBitmap;
+            default:
+                return mNotCompletedIconBitmap;
+        }
     }
 
     /**
@@ -148,6 +423,7 @@ abstract class StepViewIndicator extends View {
      */
     public void setCompletedLineColor(int completedLineColor) {
         mCompletedLineColor = completedLineColor;
+        invalidateContent();
     }
 
     /**
@@ -166,6 +442,8 @@ abstract class StepViewIndicator extends View {
      */
     public void setCircleRadiusPx(float circleRadiusPx) {
         this.mCircleRadius = circleRadiusPx;
+        updateLayout();
+        invalidateContent();
     }
 
     /**
@@ -174,9 +452,12 @@ abstract class StepViewIndicator extends View {
      * @param circleRadiusDp Circle radius, in density-independent pixels (dp) (float)
      */
     public void setCircleRadius(float circleRadiusDp) {
-        Log.d("StepViewIndicator", "setCircleRadius called with " + circleRadiusDp);
-        Log.d("StepViewIndicator", "convertDpToPx = " + convertDpToPx(circleRadiusDp));
         this.mCircleRadius = convertDpToPx(circleRadiusDp);
+        if (StepViewLog.sIsEnabled) {
+            StepViewLog.log(TAG, "setCircleRadius: " + circleRadiusDp + "dp = " + mCircleRadius + "px");
+        }
+        updateLayout();
+        invalidateContent();
     }
 
     /**
@@ -195,6 +476,8 @@ abstract class StepViewIndicator extends View {
      */
     public void setLineLengthPx(float lineLengthPx) {
         this.mLineLength = lineLengthPx;
+        updateLayout();
+        invalidateContent();
     }
 
     /**
@@ -204,6 +487,8 @@ abstract class StepViewIndicator extends View {
      */
     public void setLineLength(float lineLengthDp) {
         this.mLineLength = convertDpToPx(lineLengthDp);
+        updateLayout();
+        invalidateContent();
     }
 
     /**
@@ -222,6 +507,7 @@ abstract class StepViewIndicator extends View {
      */
     public void setNotCompletedLineColor(int notCompletedLineColor) {
         mNotCompletedLineColor = notCompletedLineColor;
+        invalidateContent();
     }
 
 
@@ -234,6 +520,8 @@ abstract class StepViewIndicator extends View {
         mNotCompletedLineType = isDashType;
 
         updateNotCompleteLineType();
+        mLinesDirty = true;
+        invalidateContent();
     }
 
     /**
@@ -248,9 +536,9 @@ abstract class StepViewIndicator extends View {
     }
 
     /**
-     * Sets a listener to be notified when the StepViewIndicator has redrawn itself
+     * Sets a listener to be notified when the geometry of the steps has changed
      *
-     * @param updateIndicatorListener OnUpdateIndicatorListener that will be notified after StepViewIndicator redraw
+     * @param updateIndicatorListener OnUpdateIndicatorListener that will be notified after the geometry has changed
      */
     public void setOnUpdateIndicatorListener(@NonNull onUpdateIndicatorListener updateIndicatorListener) {
         mUpdateIndicatorListener = updateIndicatorListener;
@@ -264,7 +552,8 @@ abstract class StepViewIndicator extends View {
      */
     public void setReverse(boolean isReverseDraw) {
         this.mIsReverseDraw = isReverseDraw;
-        invalidate();
+        updateLayout();
+        invalidateContent();
     }
 
     /**
@@ -275,25 +564,777 @@ abstract class StepViewIndicator extends View {
      */
     public void setSteps(@Nullable List<Step> stepList) {
         int numSteps = getNumOfSteps();
-        Log.d("StepView", "SVIndicator: setSteps called with " + (stepList == null ? "null" : stepList.size()) + " items");
+        if (StepViewLog.sIsEnabled) {
+            StepViewLog.log(TAG, "setSteps called with " + (stepList == null ? "null" : stepList.size()) + " items");
+        }
+        if (mTransitions != null) {
+            // The positions of the steps in transition may no longer be valid
+            mTransitions.cancel();
+        }
         mStepList = stepList;
+        mLinesDirty = true;
+        updateLayout();
 
-        invalidate();
+        invalidateContent();
         if (numSteps != mStepList.size()) {
             requestLayout();
         }
     }
 
     /**
-     * Returns the list of coordinates of the center of the Step icons
+     * Replaces the list of steps with a list of as many steps, without redrawing anything. Steps
+     * that differ from the steps they replace must be invalidated with {@link #invalidateStep(int)}.
+     *
+     * @param stepList {@link List} of {@link Step}s
+     */
+    void replaceSteps(@NonNull List<Step> stepList) {
+        mStepList = stepList;
+    }
+
+    /**
+     * Sets whether the content of the indicator is recorded once into a snapshot, which is then
+     * drawn in a single call until the steps, colors, icons or size change. This makes redrawing
+     * a static indicator much cheaper, at the cost of a bitmap the size of the indicator when the
+     * snapshot cannot be recorded into a {@link android.graphics.RenderNode} (before API 29, or in
+     * software rendering).
+     * <p>
+     * The snapshot is not used while the steps are scrolled, see {@link #setViewport(float, float)}.
+     *
+     * @param isSnapshotEnabled Whether the content is drawn from a snapshot
+     */
+    void setSnapshotEnabled(boolean isSnapshotEnabled) {
+        if (mIsSnapshotEnabled == isSnapshotEnabled) {
+            return;
+        }
+        mIsSnapshotEnabled = isSnapshotEnabled;
+        mSnapshot.release();
+        invalidate();
+    }
+
+    /**
+     * Returns whether the content of the indicator is drawn from a snapshot
+     *
+     * @return true if the content is drawn from a snapshot
+     */
+    boolean isSnapshotEnabled() {
+        return mIsSnapshotEnabled;
+    }
+
+    /**
+     * Redraws the whole indicator after its content has changed, discarding the snapshot if any
+     */
+    void invalidateContent() {
+        mSnapshot.invalidate();
+        invalidate();
+    }
+
+    /**
+     * Sets whether each draw pass is timed and reported to {@link #mUpdateIndicatorListener}
+     *
+     * @param isDrawTimingEnabled Whether draw passes are timed
+     */
+    void setDrawTimingEnabled(boolean isDrawTimingEnabled) {
+        mIsDrawTimingEnabled = isDrawTimingEnabled;
+        if (mLabelRenderer != null) {
+            // The labels are bound while drawing
+            mLabelRenderer.setBindTimingEnabled(isDrawTimingEnabled);
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (!mIsDrawTimingEnabled || mUpdateIndicatorListener == null) {
+            drawContent(canvas);
+            return;
+        }
+        final long startNanos = System.nanoTime();
+        drawContent(canvas);
+        mUpdateIndicatorListener.onIndicatorDrawn(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Draws the content of the indicator, from the snapshot if it is enabled
+     *
+     * @param canvas Canvas of the indicator
+     */
+    private void drawContent(Canvas canvas) {
+        updateLayout();
+
+        if (!mIsSnapshotEnabled || mHasViewport || (mTransitions != null && mTransitions.isRunning()) || hasLiveStepIcon()) {
+            // The snapshot would be recorded again on every frame of a transition, or of a live icon
+            drawSteps(canvas);
+            return;
+        }
+        final int width = getWidth();
+        final int height = getHeight();
+        if (!mSnapshot.isValid(canvas, width, height)
+                || mSnapshotLayoutVersion != mLayoutEngine.getVersion()
+                || !linesMatchStates()) {
+            mIsRecordingSnapshot = true;
+            drawSteps(mSnapshot.beginRecording(canvas, width, height));
+            mIsRecordingSnapshot = false;
+            mSnapshot.endRecording();
+            mSnapshotLayoutVersion = mLayoutEngine.getVersion();
+        }
+        mSnapshot.draw(canvas);
+        // The progress of the steps changes often, so it is drawn over the snapshot rather than recorded
+        drawProgressLines(canvas, true);
+    }
+
+    /**
+     * Draws the lines, the step icons and, if any, the labels. The geometry is up to date.
+     *
+     * @param canvas Canvas to draw on, which may be the canvas of a snapshot
+     */
+    abstract void drawSteps(@NonNull Canvas canvas);
+
+    /**
+     * Sets the view that measures, lays out and draws the indicator in place of a parent.
+     * Invalidations and layout requests of the indicator are forwarded to the host, since the
+     * indicator itself is never attached to a window.
+     *
+     * @param host The view that draws the indicator, or null
+     */
+    void setHost(@Nullable View host) {
+        mHost = host;
+    }
+
+    @Override
+    public void invalidate() {
+        super.invalidate();
+        if (mHost != null) {
+            mHost.invalidate();
+        }
+    }
+
+    /**
+     * Invalidates a region of the indicator, and the same region of the host, if any.
+     * <p>
+     * {@link View#invalidate(Rect)} is deprecated since API 28, since hardware-accelerated
+     * rendering redraws the whole view, but software rendering still only redraws the region.
+     *
+     * @param dirty The region to redraw, in the coordinates of the indicator
+     */
+    @SuppressWarnings("deprecation")
+    void invalidateRegion(@NonNull Rect dirty) {
+        invalidate(dirty);
+        if (mHost != null) {
+            mHostDirtyRect.set(dirty);
+            mHostDirtyRect.offset(getLeft(), getTop());
+            mHost.invalidate(mHostDirtyRect);
+        }
+    }
+
+    @Override
+    public void requestLayout() {
+        super.requestLayout();
+        if (mHost != null) {
+            mHost.requestLayout();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        mSnapshot.release();
+        cancelTransitions();
+    }
+
+    /**
+     * Sets the duration of the transitions that animate a step from its previous state to its new
+     * state, see {@link #startTransition(int, Step.State, Step.State)}. Transitions are disabled by
+     * default, and are never run before API 16, which has no {@link android.view.Choreographer}.
+     *
+     * @param durationMillis Duration, in milliseconds, or 0 to disable transitions
+     */
+    void setTransitionDuration(long durationMillis) {
+        if (durationMillis > 0 && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            if (mTransitions == null) {
+                mTransitions = new StepTransitionAnimator(this);
+            }
+            mTransitions.setDuration(durationMillis);
+        } else if (mTransitions != null) {
+            mTransitions.cancel();
+            mTransitions = null;
+        }
+    }
+
+    /**
+     * Animates the step at the given position from its previous state to its current state, if
+     * transitions are enabled. Each frame of the transition only redraws the region of the step,
+     * as {@link #invalidateStep(int)} does, and never requests a layout pass.
+     * <p>
+     * A step whose state changes while it is in transition is animated from where it is, rather
+     * than jumping to the end of its transition first.
+     *
+     * @param stepPosition Position of the step, whose state is already set to the new state
+     * @param fromState    Previous state of the step
+     * @param toState      New state of the step
+     */
+    void startTransition(int stepPosition, @NonNull Step.State fromState, @NonNull Step.State toState) {
+        if (mTransitions == null || stepPosition >= getNumOfSteps()) {
+            return;
+        }
+        mTransitions.start(stepPosition, fromState, toState);
+        // The line leading to the step is drawn by drawTransitionLines() until the transition ends
+        mLinesDirty = true;
+    }
+
+    /**
+     * Ends the transitions immediately, in their final state
+     */
+    void cancelTransitions() {
+        if (mTransitions != null) {
+            mTransitions.cancel();
+        }
+    }
+
+    /**
+     * Invoked by {@link #mTransitions} on each frame of the transition of a step
+     */
+    void onTransitionFrame(int stepPosition, @NonNull Step.State fromState, @NonNull Step.State toState, float fraction) {
+        invalidateStepRegion(stepPosition);
+        if (mUpdateIndicatorListener != null) {
+            mUpdateIndicatorListener.onStepTransition(stepPosition, fromState, toState, fraction);
+        }
+    }
+
+    /**
+     * Invoked by {@link #mTransitions} when the transition of a step has ended or was cancelled
+     */
+    void onTransitionEnded(int stepPosition, @NonNull Step.State fromState, @NonNull Step.State toState) {
+        // The line leading to the step is built by updateLines() again
+        mLinesDirty = true;
+        if (stepPosition < mLayoutEngine.getStepCount()) {
+            mSnapshot.invalidate();
+            invalidateStepRegion(stepPosition);
+        }
+        if (mUpdateIndicatorListener != null) {
+            mUpdateIndicatorListener.onStepTransition(stepPosition, fromState, toState, 1);
+        }
+    }
+
+    /**
+     * Returns the renderer that draws the names of the steps on the canvas of the indicator
+     *
+     * @return {@link StepLabelRenderer}, or null if the names are not drawn by the indicator
+     */
+    @Nullable
+    StepLabelRenderer getLabelRenderer() {
+        return mLabelRenderer;
+    }
+
+    /**
+     * Sets the renderer that draws the names of the steps on the canvas of the indicator.
+     * The indicator makes room for the labels, so setting it requests a layout pass.
+     *
+     * @param labelRenderer {@link StepLabelRenderer}, or null to stop drawing the names
+     */
+    void setLabelRenderer(@Nullable StepLabelRenderer labelRenderer) {
+        if (mLabelRenderer == labelRenderer) {
+            return;
+        }
+        mLabelRenderer = labelRenderer;
+        if (labelRenderer != null) {
+            labelRenderer.setBindTimingEnabled(mIsDrawTimingEnabled);
+        }
+        requestLayout();
+        invalidateContent();
+    }
+
+    /**
+     * Restricts drawing to the steps that intersect the given range of the main axis.
+     * Steps outside the range are skipped entirely, so that the cost of a frame depends on the
+     * size of the range rather than on the number of steps.
+     *
+     * @param start Start of the visible range along the main axis, in pixels
+     * @param end   End of the visible range along the main axis, in pixels
+     */
+    void setViewport(float start, float end) {
+        if (mHasViewport && mViewportStart == start && mViewportEnd == end) {
+            return;
+        }
+        mHasViewport = true;
+        mViewportStart = start;
+        mViewportEnd = end;
+        invalidate();
+    }
+
+    /**
+     * Removes the restriction set by {@link #setViewport(float, float)}, so that all the steps are drawn
+     */
+    void clearViewport() {
+        if (mHasViewport) {
+            mHasViewport = false;
+            invalidate();
+        }
+    }
+
+    /**
+     * Computes {@link #mFirstDrawnStep} and {@link #mLastDrawnStep}: the range of steps that
+     * intersect the viewport, or all the steps when there is no viewport.
+     * The lines drawn are the ones that lead to and from these steps.
+     */
+    void computeDrawnRange() {
+        final StepLayoutEngine layout = mLayoutEngine;
+        if (!mHasViewport || layout.getStepCount() == 0) {
+            mFirstDrawnStep = 0;
+            mLastDrawnStep = layout.getStepCount() - 1;
+            return;
+        }
+        final int startStep = layout.getStepAt(mViewportStart);
+        final int endStep = layout.getStepAt(mViewportEnd);
+        mFirstDrawnStep = Math.min(startStep, endStep);
+        mLastDrawnStep = Math.max(startStep, endStep);
+    }
+
+    /**
+     * Redraws only the region around the step at the given position: its icon and the two lines
+     * that connect it to the previous and the next step. This is invoked when the state of a single
+     * step has changed and the number of steps is unchanged.
+     * <p>
+     * When the labels are drawn by the indicator, the regions of the previous and the new label of
+     * the step are redrawn as well, since a label may be wider than the region around its step.
+     *
+     * @param stepPosition Position of the step that changed
+     */
+    void invalidateStep(int stepPosition) {
+        final StepLayoutEngine layout = mLayoutEngine;
+        if (computeLayout() || stepPosition < 0 || stepPosition >= layout.getStepCount()) {
+            // The geometry itself is out of date, so the whole indicator must be redrawn
+            if (mUpdateIndicatorListener != null) {
+                mUpdateIndicatorListener.onIndicatorUpdated();
+            }
+            invalidateContent();
+            return;
+        }
+        mLinesDirty = true; // The line leading to the step may change
+        if (mLabelRenderer != null) {
+            // The previous label may be larger than the new one
+            mDirtyRect.setEmpty();
+            unionLabelBounds(mDirtyRect, stepPosition);
+            invalidateRegion(mDirtyRect);
+            mLabelRenderer.invalidateStep(stepPosition);
+        }
+        mSnapshot.invalidate();
+        invalidateStepRegion(stepPosition);
+    }
+
+    /**
+     * Redraws the region around the step at the given position, including its label if the labels
+     * are drawn by the indicator. The geometry must be up to date.
+     *
+     * @param stepPosition Position of the step
+     */
+    private void invalidateStepRegion(int stepPosition) {
+        final StepLayoutEngine layout = mLayoutEngine;
+        final float radius = layout.getRadius();
+        float start = layout.getCenter(stepPosition) - radius;
+        float end = layout.getCenter(stepPosition) + radius;
+        if (stepPosition > 0) {
+            start = Math.min(start, layout.getLineStart(stepPosition - 1));
+            end = Math.max(end, layout.getLineEnd(stepPosition - 1));
+        }
+        if (stepPosition < layout.getLineCount()) {
+            start = Math.min(start, layout.getLineStart(stepPosition));
+            end = Math.max(end, layout.getLineEnd(stepPosition));
+        }
+        // Completed lines overlap the step icons slightly, see onDraw()
+        setStepDirtyRect(mDirtyRect, start - LINE_OVERLAP, end + LINE_OVERLAP);
+        if (mLabelRenderer != null) {
+            unionLabelBounds(mDirtyRect, stepPosition);
+        }
+        invalidateRegion(mDirtyRect);
+    }
+
+    /**
+     * Adds the bounds of the label of a step to a rectangle. The label is laid out if needed.
+     * The label of a step in transition has the same size in its previous state, since only its
+     * color changes.
+     *
+     * @param rect         Rectangle to add the bounds to
+     * @param stepPosition Position of the step, whose label is drawn by {@link #mLabelRenderer}
+     */
+    private void unionLabelBounds(@NonNull Rect rect, int stepPosition) {
+        final Layout labelLayout = mLabelRenderer.getLayout(mStepList, stepPosition);
+        final float left = getLabelLeft(stepPosition, labelLayout);
+        final float top = getLabelTop(stepPosition, labelLayout);
+        rect.union((int) Math.floor(left), (int) Math.floor(top),
+                (int) Math.ceil(left + labelLayout.getWidth()), (int) Math.ceil(top + labelLayout.getHeight()));
+    }
+
+    /**
+     * Redraws only the line leading to the step at the given position, after the progress of the
+     * step has changed. The lines and the snapshot are left as they are, since the progress is
+     * drawn over them, see {@link #drawProgressLines(Canvas, float)}.
      *
-     * @return {@link List} of center point coordinates
+     * @param stepPosition Position of the step whose progress changed
+     */
+    void invalidateStepProgress(int stepPosition) {
+        final StepLayoutEngine layout = mLayoutEngine;
+        if (computeLayout() || stepPosition >= layout.getStepCount()) {
+            // The geometry itself is out of date, so the whole indicator must be redrawn
+            if (mUpdateIndicatorListener != null) {
+                mUpdateIndicatorListener.onIndicatorUpdated();
+            }
+            invalidateContent();
+            return;
+        }
+        if (stepPosition <= 0) {
+            // No line leads to the first step
+            return;
+        }
+        setStepDirtyRect(mDirtyRect, layout.getLineStart(stepPosition - 1) - LINE_OVERLAP, layout.getLineEnd(stepPosition - 1) + LINE_OVERLAP);
+        invalidateRegion(mDirtyRect);
+    }
+
+    /**
+     * Rebuilds the lines leading to and from the drawn steps, if the geometry, the states of the
+     * steps, the line type or the range of drawn steps changed since they were last built.
+     * The states are checked even if no change was reported, since they may have been changed on
+     * the {@link Step}s themselves before the indicator was invalidated.
+     * <p>
+     * Solid lines are batched into {@link #mCompletedLinePoints} and {@link #mNotCompletedLinePoints},
+     * four values per segment, for {@link Canvas#drawLines(float[], int, int, Paint)}. Dashed lines
+     * are added to {@link #mDashedLinePath}, since not all renderers apply a path effect to
+     * drawLines(). Either way, a frame draws the lines with at most one call per line style, no
+     * matter how many steps there are: see {@link #drawLines(Canvas)}.
+     * <p>
+     * Must be called after {@link #computeDrawnRange()}.
+     */
+    void updateLines() {
+        final StepLayoutEngine layout = mLayoutEngine;
+        if (!mLinesDirty
+                && mLinesLayoutVersion == layout.getVersion()
+                && mLinesFirstStep == mFirstDrawnStep
+                && mLinesLastStep == mLastDrawnStep
+                && linesMatchStates()) {
+            return;
+        }
+        mLinesDirty = false;
+        mLinesLayoutVersion = layout.getVersion();
+        mLinesFirstStep = mFirstDrawnStep;
+        mLinesLastStep = mLastDrawnStep;
+
+        final int firstLine = Math.max(mFirstDrawnStep - 1, 0);
+        final int lastLine = Math.min(mLastDrawnStep, layout.getLineCount() - 1);
+        final int maxPointCount = Math.max(lastLine - firstLine + 1, 0) * 4;
+        if (mCompletedLinePoints.length < maxPointCount) {
+            mCompletedLinePoints = new float[maxPointCount];
+            mNotCompletedLinePoints = new float[maxPointCount];
+        }
+        mCompletedLinePointCount = 0;
+        mNotCompletedLinePointCount = 0;
+        // rewind() keeps the memory of the path, so rebuilding it does not allocate
+        mDashedLinePath.rewind();
+        mCompletedLines.clear();
+        for (int i = firstLine; i <= lastLine; i++) {
+            final boolean isCompleted = StepListAccess.getState(mStepList, i + 1) == Step.State.COMPLETED;
+            mCompletedLines.set(i, isCompleted);
+            if (mTransitions != null && mTransitions.indexOf(i + 1) >= 0) {
+                // Drawn by drawTransitionLines()
+                continue;
+            }
+            final float lineStart = layout.getLineStart(i);
+            final float lineEnd = layout.getLineEnd(i);
+            // The style of a line depends on the state of the step it leads to.
+            // Solid lines overlap the step icons slightly, so that they do not look detached.
+            if (isCompleted) {
+                setSolidLine(mCompletedLinePoints, mCompletedLinePointCount, lineStart - LINE_OVERLAP, lineEnd + LINE_OVERLAP);
+                mCompletedLinePointCount += 4;
+            } else if (mNotCompletedLineType) {
+                addDashedLine(mDashedLinePath, lineStart, lineEnd);
+            } else {
+                setSolidLine(mNotCompletedLinePoints, mNotCompletedLinePointCount, lineStart - LINE_OVERLAP, lineEnd + LINE_OVERLAP);
+                mNotCompletedLinePointCount += 4;
+            }
+        }
+    }
+
+    /**
+     * Returns whether the lines built by {@link #updateLines()} lead to steps in the same states as
+     * the current ones. This reads the state of each drawn step but does not allocate.
+     *
+     * @return false if the state of a step changed from or to completed since the lines were built
+     */
+    private boolean linesMatchStates() {
+        final int firstLine = Math.max(mLinesFirstStep - 1, 0);
+        final int lastLine = Math.min(mLinesLastStep, getNumOfSteps() - 2);
+        for (int i = firstLine; i <= lastLine; i++) {
+            if (mCompletedLines.get(i) != (StepListAccess.getState(mStepList, i + 1) == Step.State.COMPLETED)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Draws the lines built by {@link #updateLines()}
+     *
+     * @param canvas Canvas to draw on
+     */
+    void drawLines(@NonNull Canvas canvas) {
+        if (mCompletedLinePointCount > 0) {
+            canvas.drawLines(mCompletedLinePoints, 0, mCompletedLinePointCount, mCompletedLinePaint);
+        }
+        if (mNotCompletedLinePointCount > 0) {
+            canvas.drawLines(mNotCompletedLinePoints, 0, mNotCompletedLinePointCount, mNotCompletedLinePaint);
+        }
+        if (!mDashedLinePath.isEmpty()) {
+            canvas.drawPath(mDashedLinePath, mNotCompletedLinePaint);
+        }
+        if (mTransitions != null && mTransitions.isRunning()) {
+            drawTransitionLines(canvas);
+        }
+        if (!mIsRecordingSnapshot) {
+            drawProgressLines(canvas, false);
+        }
+    }
+
+    /**
+     * Draws the completed part of the lines leading to the drawn steps that are not completed but
+     * have some progress, over the not-completed lines built by {@link #updateLines()}. Steps in
+     * transition are drawn by {@link #drawTransitionLines(Canvas)} instead.
+     * <p>
+     * The completed part extends beneath the step icons, as the completed lines do. Over the
+     * snapshot, which already has the icons, the icons at both ends of the line are drawn again.
+     *
+     * @param canvas        Canvas to draw on
+     * @param isOverIcons   Whether the icons were already drawn, i.e. the lines are drawn over the snapshot
+     */
+    void drawProgressLines(@NonNull Canvas canvas, boolean isOverIcons) {
+        final int firstStep = Math.max(mFirstDrawnStep, 1);
+        final int lastStep = Math.min(mLastDrawnStep + 1, mLayoutEngine.getStepCount() - 1);
+        for (int i = firstStep; i <= lastStep; i++) {
+            final float progress = StepListAccess.getProgress(mStepList, i);
+            if (progress > 0
+                    && StepListAccess.getState(mStepList, i) != Step.State.COMPLETED
+                    && (mTransitions == null || mTransitions.indexOf(i) < 0)) {
+                drawLineFill(canvas, i - 1, progress);
+                if (isOverIcons) {
+                    resolveStepIcons();
+                    drawStepIcon(canvas, i - 1);
+                    drawStepIcon(canvas, i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws the lines leading to the drawn steps that are in transition, which are partially
+     * filled: the completed line grows from the previous step towards the step when the step
+     * becomes completed, and shrinks back when it no longer is.
+     *
+     * @param canvas Canvas to draw on
+     */
+    private void drawTransitionLines(@NonNull Canvas canvas) {
+        final StepTransitionAnimator transitions = mTransitions;
+        final int firstLine = Math.max(mFirstDrawnStep - 1, 0);
+        final int lastLine = Math.min(mLastDrawnStep, mLayoutEngine.getLineCount() - 1);
+        for (int t = 0; t < transitions.getCount(); t++) {
+            final int line = transitions.getStepPosition(t) - 1;
+            if (line < firstLine || line > lastLine) {
+                continue;
+            }
+            final float fraction = transitions.getInterpolatedFraction(t);
+            // A step that is not completed is filled up to its progress
+            final float progress = StepListAccess.getProgress(mStepList, line + 1);
+            final float fromFill = transitions.getFromState(t) == Step.State.COMPLETED ? 1 : progress;
+            final float toFill = transitions.getToState(t) == Step.State.COMPLETED ? 1 : progress;
+            drawPartialLine(canvas, line, fromFill + (toFill - fromFill) * fraction);
+        }
+    }
+
+    /**
+     * Draws a line whose completed part extends from the step before it over the given fraction
+     * of its length, the rest being drawn as a not-completed line
+     *
+     * @param canvas       Canvas to draw on
+     * @param lineIndex    Index of the line, which leads to the step at lineIndex + 1
+     * @param fillFraction Completed fraction of the line, from 0 to 1
+     */
+    void drawPartialLine(@NonNull Canvas canvas, int lineIndex, float fillFraction) {
+        final float lineStart = mLayoutEngine.getLineStart(lineIndex);
+        final float lineEnd = mLayoutEngine.getLineEnd(lineIndex);
+        if (fillFraction < 1) {
+            if (mNotCompletedLineType) {
+                mTransitionLinePath.rewind();
+                addDashedLine(mTransitionLinePath, lineStart, lineEnd);
+                canvas.drawPath(mTransitionLinePath, mNotCompletedLinePaint);
+            } else {
+                setSolidLine(mTransitionLinePoints, 0, lineStart - LINE_OVERLAP, lineEnd + LINE_OVERLAP);
+                canvas.drawLines(mTransitionLinePoints, 0, 4, mNotCompletedLinePaint);
+            }
+        }
+        if (fillFraction > 0) {
+            drawLineFill(canvas, lineIndex, fillFraction);
+        }
+    }
+
+    /**
+     * Draws the completed part of a line, which extends from the step before it over the given
+     * fraction of its length
+     *
+     * @param canvas       Canvas to draw on
+     * @param lineIndex    Index of the line, which leads to the step at lineIndex + 1
+     * @param fillFraction Completed fraction of the line, from 0 to 1
+     */
+    private void drawLineFill(@NonNull Canvas canvas, int lineIndex, float fillFraction) {
+        final StepLayoutEngine layout = mLayoutEngine;
+        // Completed lines overlap the step icons slightly, so that they do not look detached
+        final float lineStart = layout.getLineStart(lineIndex) - LINE_OVERLAP;
+        final float lineEnd = layout.getLineEnd(lineIndex) + LINE_OVERLAP;
+        final float fillLength = (lineEnd - lineStart) * fillFraction;
+        // In reverse order, the step before the line is at its end
+        if (layout.getCenter(lineIndex) > layout.getCenter(lineIndex + 1)) {
+            setSolidLine(mTransitionLinePoints, 0, lineEnd - fillLength, lineEnd);
+        } else {
+            setSolidLine(mTransitionLinePoints, 0, lineStart, lineStart + fillLength);
+        }
+        canvas.drawLines(mTransitionLinePoints, 0, 4, mCompletedLinePaint);
+    }
+
+    /**
+     * Draws the icon of the step at the given position. The icons of a step in transition are
+     * cross-faded. Must be called after {@link #resolveStepIcons()}.
+     *
+     * @param canvas       Canvas to draw on
+     * @param stepPosition Position of the step
+     * @param left         Left edge of the icon, in pixels
+     * @param top          Top edge of the icon, in pixels
+     */
+    void drawStepIcon(@NonNull Canvas canvas, int stepPosition, int left, int top) {
+        final int transition = mTransitions == null ? -1 : mTransitions.indexOf(stepPosition);
+        if (transition < 0) {
+            canvas.drawBitmap(getStepIcon(StepListAccess.getState(mStepList, stepPosition)), left, top, mIconPaint);
+            return;
+        }
+        final float fraction = mTransitions.getInterpolatedFraction(transition);
+        mIconPaint.setAlpha(Math.round(255 * (1 - fraction)));
+        canvas.drawBitmap(getStepIcon(mTransitions.getFromState(transition)), left, top, mIconPaint);
+        mIconPaint.setAlpha(Math.round(255 * fraction));
+        canvas.drawBitmap(getStepIcon(mTransitions.getToState(transition)), left, top, mIconPaint);
+        mIconPaint.setAlpha(255);
+    }
+
+    /**
+     * Draws the icon of the step at the given position, at its place in the geometry.
+     * Must be called after {@link #resolveStepIcons()}.
+     *
+     * @param canvas       Canvas to draw on
+     * @param stepPosition Position of the step
+     */
+    abstract void drawStepIcon(@NonNull Canvas canvas, int stepPosition);
+
+    /**
+     * Draws the label of the step at the given position with {@link #mLabelRenderer}, which must
+     * be set. The labels of a step in transition, in its previous and current states, are cross-faded.
+     *
+     * @param canvas       Canvas to draw on
+     * @param stepPosition Position of the step
+     */
+    void drawStepLabel(@NonNull Canvas canvas, int stepPosition) {
+        final Layout labelLayout = mLabelRenderer.getLayout(mStepList, stepPosition);
+        final int transition = mTransitions == null ? -1 : mTransitions.indexOf(stepPosition);
+        if (transition < 0) {
+            mLabelRenderer.draw(canvas, labelLayout,
+                    getLabelLeft(stepPosition, labelLayout), getLabelTop(stepPosition, labelLayout));
+            return;
+        }
+        Layout fromLayout = mTransitions.getFromLabelLayout(transition);
+        if (fromLayout == null) {
+            // Resolved once per transition, rather than on every frame
+            fromLayout = mLabelRenderer.getLayout(StepListAccess.getName(mStepList, stepPosition), mTransitions.getFromState(transition));
+            mTransitions.setFromLabelLayout(transition, fromLayout);
+        }
+        final float fraction = mTransitions.getInterpolatedFraction(transition);
+        mLabelRenderer.draw(canvas, fromLayout,
+                getLabelLeft(stepPosition, fromLayout), getLabelTop(stepPosition, fromLayout), 1 - fraction);
+        mLabelRenderer.draw(canvas, labelLayout,
+                getLabelLeft(stepPosition, labelLayout), getLabelTop(stepPosition, labelLayout), fraction);
+    }
+
+    /**
+     * Returns the left edge of the label of a step, when the labels are drawn by the indicator
+     *
+     * @param stepPosition Position of the step
+     * @param labelLayout  Layout of the label
+     * @return Left edge, in pixels
+     */
+    abstract float getLabelLeft(int stepPosition, @NonNull Layout labelLayout);
+
+    /**
+     * Returns the top edge of the label of a step, when the labels are drawn by the indicator
+     *
+     * @param stepPosition Position of the step
+     * @param labelLayout  Layout of the label
+     * @return Top edge, in pixels
+     */
+    abstract float getLabelTop(int stepPosition, @NonNull Layout labelLayout);
+
+    /**
+     * Writes a solid line segment that spans the given range of the main axis, along the center
+     * of the step icons, as the four values (x0, y0, x1, y1) expected by
+     * {@link Canvas#drawLines(float[], int, int, Paint)}
+     *
+     * @param points Buffer of segments
+     * @param offset Index of the first of the four values to write
+     * @param start  Start of the line along the main axis, in pixels
+     * @param end    End of the line along the main axis, in pixels
+     */
+    abstract void setSolidLine(@NonNull float[] points, int offset, float start, float end);
+
+    /**
+     * Adds a line, stroked with a dash effect, that spans the given range of the main axis
+     *
+     * @param path  Path to add the line to
+     * @param start Start of the line along the main axis, in pixels
+     * @param end   End of the line along the main axis, in pixels
+     */
+    abstract void addDashedLine(@NonNull Path path, float start, float end);
+
+    /**
+     * Sets the given rectangle to the region of the view that spans the given range of the main
+     * axis, across the full thickness of the step icons.
+     *
+     * @param outRect Rectangle that receives the region
+     * @param start   Start of the range along the main axis, in pixels
+     * @param end     End of the range along the main axis, in pixels
+     */
+    abstract void setStepDirtyRect(@NonNull Rect outRect, float start, float end);
+
+    /**
+     * Returns the layout engine that holds the coordinates of the Step icons and lines.
+     * The geometry is brought up to date before it is returned.
+     *
+     * @return {@link StepLayoutEngine} with the current geometry
      */
     @NonNull
-    List<Float> getCircleCenterPointPositionList() {
-        return mCircleCenterPointPositionList;
+    StepLayoutEngine getLayoutEngine() {
+        computeLayout();
+        return mLayoutEngine;
     }
 
+    /**
+     * Recomputes the geometry of the steps and notifies the {@link onUpdateIndicatorListener} if
+     * it has changed. This is cheap when nothing has changed, so it is invoked whenever one of
+     * the inputs of the geometry may have been modified, as well as before drawing.
+     */
+    void updateLayout() {
+        if (computeLayout() && mUpdateIndicatorListener != null) {
+            mUpdateIndicatorListener.onIndicatorUpdated();
+        }
+    }
+
+    /**
+     * Recomputes the geometry of the steps in {@link #mLayoutEngine} if the number of steps, the
+     * size of the view, the circle radius, the line length or the direction have changed.
+     *
+     * @return true if the geometry was recomputed
+     */
+    abstract boolean computeLayout();
+
     /**
      * Helper method that returns the number of steps (if any), or zero.
      *
@@ -310,48 +1351,40 @@ abstract class StepViewIndicator extends View {
      * @return Value in px
      */
     private float convertDpToPx(float numDp) {
-        Log.d("SVI", "convertDpToPx called with " + numDp);
-        DisplayMetrics displayMetrics = getResources().getDisplayMetrics();
-        Log.d("SVI", String.format("SVI displayMetrics: h: %d, w: %d. Density: %f", displayMetrics.heightPixels, displayMetrics.widthPixels, displayMetrics.density));
         return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, numDp, getResources().getDisplayMetrics());
     }
 
     private void init() {
-        mPath = new Path();
         mEffects = new DashPathEffect(new float[]{8, 8, 8, 8}, 1);
-        mCircleCenterPointPositionList = new ArrayList<>();//初始化
 
         mNotCompletedLinePaint = new Paint();
         mCompletedLinePaint = new Paint();
         mNotCompletedLinePaint.setAntiAlias(true);
         mNotCompletedLinePaint.setColor(mNotCompletedLineColor);
-        mNotCompletedLinePaint.setStyle(Paint.Style.STROKE);
-        mNotCompletedLinePaint.setStrokeWidth(2);
 
+        mCompletedLineHeight = 0.05f * DEFAULT_STEP_INDICATOR_DIMENSION;
+        mCircleRadius = 0.28f * DEFAULT_STEP_INDICATOR_DIMENSION;
+        mLineLength = 0.85f * DEFAULT_STEP_INDICATOR_DIMENSION;
+
+        // Solid lines are drawn with drawLines(), which always strokes them
         mCompletedLinePaint.setAntiAlias(true);
         mCompletedLinePaint.setColor(mCompletedLineColor);
         mCompletedLinePaint.setStyle(Paint.Style.STROKE);
-        mCompletedLinePaint.setStrokeWidth(2);
+        mCompletedLinePaint.setStrokeWidth(mCompletedLineHeight);
 
         updateNotCompleteLineType();
-
-        mCompletedLinePaint.setStyle(Paint.Style.FILL);
-
-        mCompletedLineHeight = 0.05f * DEFAULT_STEP_INDICATOR_DIMENSION;
-        mCircleRadius = 0.28f * DEFAULT_STEP_INDICATOR_DIMENSION;
-        mLineLength = 0.85f * DEFAULT_STEP_INDICATOR_DIMENSION;
-
-        mCompletedStepIcon = AppCompatResources.getDrawable(getContext(), R.drawable.ic_completed);
-        mCurrentStepIcon = AppCompatResources.getDrawable(getContext(), R.drawable.ic_current);
-        mNotCompletedStepIcon = AppCompatResources.getDrawable(getContext(), R.drawable.ic_not_completed);
     }
 
     private void updateNotCompleteLineType() {
 
+        mNotCompletedLinePaint.setStyle(Paint.Style.STROKE);
         if (mNotCompletedLineType) {
+            mNotCompletedLinePaint.setStrokeWidth(2);
             mNotCompletedLinePaint.setPathEffect(mEffects);
-        }else {
-            mNotCompletedLinePaint.setStyle(Paint.Style.FILL);
+        } else {
+            // Same thickness as completed lines
+            mNotCompletedLinePaint.setStrokeWidth(mCompletedLineHeight);
+            mNotCompletedLinePaint.setPathEffect(null);
         }
     }
 }
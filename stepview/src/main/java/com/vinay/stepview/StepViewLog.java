@@ -0,0 +1,38 @@
+package com.vinay.stepview;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Forwards the diagnostic messages of the library to the {@link StepViewLogger} set with
+ * {@link StepView#setLogger(StepViewLogger)}.
+ * <p>
+ * Messages must only be built when logging is enabled, so that without a logger the diagnostics
+ * cost a single field read:
+ * <pre>
+ * if (StepViewLog.sIsEnabled) {
+ *     StepViewLog.log(TAG, "setSteps called with " + count + " items");
+ * }
+ * </pre>
+ */
+final class StepViewLog {
+
+    /**
+     * Whether a logger other than {@link StepViewLogger#NONE} is set
+     */
+    static boolean sIsEnabled;
+
+    private static StepViewLogger sLogger = StepViewLogger.NONE;
+
+    private StepViewLog() {
+    }
+
+    static void setLogger(@Nullable StepViewLogger logger) {
+        sLogger = logger == null ? StepViewLogger.NONE : logger;
+        sIsEnabled = sLogger != StepViewLogger.NONE;
+    }
+
+    static void log(@NonNull String tag, @NonNull String message) {
+        sLogger.log(tag, message);
+    }
+}
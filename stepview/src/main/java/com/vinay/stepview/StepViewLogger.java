@@ -0,0 +1,47 @@
+package com.vinay.stepview;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Receives diagnostic messages from the StepView library.
+ * <p>
+ * Logging is disabled by default, and the library does not even build the messages until a
+ * logger is set with {@link StepView#setLogger(StepViewLogger)}, so it costs a single field read
+ * per diagnostic in production. To trace the library in debug builds of an app:
+ * <pre>
+ * if (BuildConfig.DEBUG) {
+ *     StepView.setLogger(StepViewLogger.LOGCAT);
+ * }
+ * </pre>
+ */
+public interface StepViewLogger {
+
+    /**
+     * Logger that discards all messages
+     */
+    StepViewLogger NONE = new StepViewLogger() {
+        @Override
+        public void log(@NonNull String tag, @NonNull String message) {
+        }
+    };
+
+    /**
+     * Logger that writes all messages to logcat, at the debug level
+     */
+    StepViewLogger LOGCAT = new StepViewLogger() {
+        @Override
+        public void log(@NonNull String tag, @NonNull String message) {
+            Log.d(tag, message);
+        }
+    };
+
+    /**
+     * Invoked with a diagnostic message. Invoked on the main thread.
+     *
+     * @param tag     Name of the class that logged the message
+     * @param message Message
+     */
+    void log(@NonNull String tag, @NonNull String message);
+}
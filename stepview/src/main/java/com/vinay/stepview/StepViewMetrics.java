@@ -0,0 +1,69 @@
+package com.vinay.stepview;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Receives the work done by a StepView: measure, layout and draw passes, label bindings and the
+ * invalidations caused by changes to the steps, with their durations.
+ * <p>
+ * Metrics are disabled by default. They are enabled per StepView with
+ * {@link StepView#setMetrics(StepViewMetrics)}, and the library does not even read the clock
+ * for StepViews without metrics. An implementation would typically aggregate the calls by screen,
+ * to find the screens whose StepViews are measured, bound or drawn more often than expected.
+ * <p>
+ * All methods are invoked on the main thread, and must return quickly.
+ */
+public interface StepViewMetrics {
+
+    /**
+     * Invoked after the StepView was measured
+     *
+     * @param stepView      The StepView
+     * @param durationNanos Duration of the measure pass, children included, in nanoseconds
+     */
+    void onMeasure(@NonNull StepView stepView, long durationNanos);
+
+    /**
+     * Invoked after the StepView was laid out
+     *
+     * @param stepView      The StepView
+     * @param durationNanos Duration of the layout pass, children included, in nanoseconds
+     */
+    void onLayout(@NonNull StepView stepView, long durationNanos);
+
+    /**
+     * Invoked after the steps were drawn: the lines, the icons and the labels drawn on the canvas,
+     * if any. Labels displayed by TextViews are drawn separately.
+     *
+     * @param stepView      The StepView
+     * @param durationNanos Duration of the draw pass, in nanoseconds
+     */
+    void onDraw(@NonNull StepView stepView, long durationNanos);
+
+    /**
+     * Invoked after the labels of some steps were bound to the name and state of their step.
+     * Labels whose step is unchanged are not bound again.
+     * <p>
+     * Labels drawn on the canvas are bound while the steps are drawn, so this is then invoked
+     * just before {@link #onDraw(StepView, long)}, whose duration includes the binding.
+     *
+     * @param stepView         The StepView
+     * @param labelCount       Number of labels bound
+     * @param textMeasureCount Number of labels whose text was measured, as opposed to found in
+     *                         the caches shared by all StepViews
+     * @param durationNanos    Duration of the binding, in nanoseconds
+     */
+    void onLabelsBound(@NonNull StepView stepView, int labelCount, int textMeasureCount, long durationNanos);
+
+    /**
+     * Invoked after {@link StepView#setSteps(java.util.List)}, {@link StepView#setStepState(com.vinay.stepview.models.Step.State, int)}
+     * or {@link StepView#setStep(com.vinay.stepview.models.Step, int)} invalidated the StepView.
+     * Changes made in a batch are reported once, when the batch ends.
+     *
+     * @param stepView           The StepView
+     * @param stepCount          Number of steps that must be drawn again
+     * @param isLayoutRequested  Whether the change requested a layout pass, in addition to a draw pass
+     * @param durationNanos      Duration of the invalidation, TextView labels bound included, in nanoseconds
+     */
+    void onStepsInvalidated(@NonNull StepView stepView, int stepCount, boolean isLayoutRequested, long durationNanos);
+}
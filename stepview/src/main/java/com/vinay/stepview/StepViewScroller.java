@@ -0,0 +1,194 @@
+package com.vinay.stepview;
+
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.ViewConfiguration;
+import android.view.ViewParent;
+import android.widget.OverScroller;
+
+import androidx.annotation.NonNull;
+import androidx.core.view.ViewCompat;
+
+/**
+ * Scrolls a {@link StepView} along its main axis in response to drag and fling gestures.
+ * <p>
+ * The scroll position is read and written through the {@link StepView}, which clamps it to the
+ * size of its content and updates the visible range of steps when it changes.
+ */
+final class StepViewScroller {
+
+    private final StepView mHost;
+    private final OverScroller mScroller;
+
+    private final int mTouchSlop;
+    private final int mMinimumFlingVelocity;
+    private final int mMaximumFlingVelocity;
+
+    private VelocityTracker mVelocityTracker;
+    private boolean mIsBeingDragged;
+    private float mLastMotion; // Last touch coordinate along the main axis
+    private float mDownMotion; // Touch coordinate along the main axis at ACTION_DOWN
+
+    StepViewScroller(@NonNull StepView host) {
+        mHost = host;
+        mScroller = new OverScroller(host.getContext());
+        ViewConfiguration configuration = ViewConfiguration.get(host.getContext());
+        mTouchSlop = configuration.getScaledTouchSlop();
+        mMinimumFlingVelocity = configuration.getScaledMinimumFlingVelocity();
+        mMaximumFlingVelocity = configuration.getScaledMaximumFlingVelocity();
+    }
+
+    /**
+     * Decides whether the {@link StepView} should steal the gesture from its children
+     *
+     * @param event Touch event
+     * @return true once the gesture has become a drag along the main axis
+     */
+    boolean onInterceptTouchEvent(@NonNull MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mDownMotion = mLastMotion = getMotion(event);
+                // A touch during a fling stops it, and is treated as the start of a new drag
+                mIsBeingDragged = !mScroller.isFinished();
+                mScroller.forceFinished(true);
+                break;
+            case MotionEvent.ACTION_MOVE:
+                if (!mIsBeingDragged && Math.abs(getMotion(event) - mDownMotion) > mTouchSlop && canScroll()) {
+                    startDrag(event);
+                }
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                mIsBeingDragged = false;
+                recycleVelocityTracker();
+                break;
+        }
+        return mIsBeingDragged;
+    }
+
+    /**
+     * Scrolls the {@link StepView} while the gesture is a drag, and flings it when the drag ends
+     *
+     * @param event Touch event
+     * @return true if the event was consumed
+     */
+    boolean onTouchEvent(@NonNull MotionEvent event) {
+        if (!canScroll()) {
+            return false;
+        }
+        if (mVelocityTracker == null) {
+            mVelocityTracker = VelocityTracker.obtain();
+        }
+        mVelocityTracker.addMovement(event);
+
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mScroller.forceFinished(true);
+                mDownMotion = mLastMotion = getMotion(event);
+                break;
+            case MotionEvent.ACTION_MOVE:
+                final float motion = getMotion(event);
+                if (!mIsBeingDragged && Math.abs(motion - mDownMotion) > mTouchSlop) {
+                    startDrag(event);
+                }
+                if (mIsBeingDragged) {
+                    mHost.setScrollPosition(mHost.getScrollPosition() + (int) (mLastMotion - motion));
+                    mLastMotion = motion;
+                }
+                break;
+            case MotionEvent.ACTION_UP:
+                if (mIsBeingDragged) {
+                    mVelocityTracker.computeCurrentVelocity(1000, mMaximumFlingVelocity);
+                    final float velocity = mHost.isVertical() ? mVelocityTracker.getYVelocity() : mVelocityTracker.getXVelocity();
+                    if (Math.abs(velocity) > mMinimumFlingVelocity) {
+                        fling((int) -velocity);
+                    }
+                }
+                mIsBeingDragged = false;
+                recycleVelocityTracker();
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                mIsBeingDragged = false;
+                recycleVelocityTracker();
+                break;
+        }
+        return true;
+    }
+
+    /**
+     * Starts a fling along the main axis
+     *
+     * @param velocity Velocity of the fling, in pixels per second. Positive values scroll towards the end.
+     */
+    void fling(int velocity) {
+        final int position = mHost.getScrollPosition();
+        final int max = mHost.getMaxScrollPosition();
+        if (mHost.isVertical()) {
+            mScroller.fling(0, position, 0, velocity, 0, 0, 0, max);
+        } else {
+            mScroller.fling(position, 0, velocity, 0, 0, max, 0, 0);
+        }
+        ViewCompat.postInvalidateOnAnimation(mHost);
+    }
+
+    /**
+     * Animates the scroll position to the given value
+     *
+     * @param position Target scroll position, in pixels
+     */
+    void smoothScrollTo(int position) {
+        final int start = mHost.getScrollPosition();
+        final int delta = Math.max(0, Math.min(position, mHost.getMaxScrollPosition())) - start;
+        if (delta == 0) {
+            return;
+        }
+        mScroller.forceFinished(true);
+        if (mHost.isVertical()) {
+            mScroller.startScroll(0, start, 0, delta);
+        } else {
+            mScroller.startScroll(start, 0, delta, 0);
+        }
+        ViewCompat.postInvalidateOnAnimation(mHost);
+    }
+
+    /**
+     * Stops any fling or smooth scroll in progress
+     */
+    void abortAnimation() {
+        mScroller.forceFinished(true);
+    }
+
+    /**
+     * Advances a fling or smooth scroll in progress. Invoked from {@link StepView#computeScroll()}
+     */
+    void computeScroll() {
+        if (mScroller.computeScrollOffset()) {
+            mHost.setScrollPosition(mHost.isVertical() ? mScroller.getCurrY() : mScroller.getCurrX());
+            ViewCompat.postInvalidateOnAnimation(mHost);
+        }
+    }
+
+    private void startDrag(MotionEvent event) {
+        mIsBeingDragged = true;
+        mLastMotion = getMotion(event);
+        ViewParent parent = mHost.getParent();
+        if (parent != null) {
+            parent.requestDisallowInterceptTouchEvent(true);
+        }
+    }
+
+    private boolean canScroll() {
+        return mHost.getMaxScrollPosition() > 0;
+    }
+
+    private float getMotion(MotionEvent event) {
+        return mHost.isVertical() ? event.getY() : event.getX();
+    }
+
+    private void recycleVelocityTracker() {
+        if (mVelocityTracker != null) {
+            mVelocityTracker.recycle();
+            mVelocityTracker = null;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.vinay.stepview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.RenderNode;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RequiresApi;
+
+/**
+ * Snapshot of the content of a {@link StepViewIndicator}, which is drawn in a single call until
+ * the content changes.
+ * <p>
+ * On a hardware-accelerated canvas on API 29+, the content is recorded into a {@link RenderNode},
+ * which costs no additional memory. Otherwise, it is rendered into a {@link Bitmap} the size of
+ * the indicator.
+ */
+final class StepViewSnapshot {
+
+    private Bitmap mBitmap;
+    private Canvas mBitmapCanvas;
+    private NodeSnapshot mNodeSnapshot;
+
+    private boolean mIsValid;
+    private boolean mIsRecordingNode; // Whether the snapshot is (being) recorded into a RenderNode
+    private int mWidth;
+    private int mHeight;
+
+    /**
+     * Returns whether the snapshot can be drawn on the given canvas as is
+     *
+     * @param canvas Canvas of the indicator
+     * @param width  Width of the indicator, in pixels
+     * @param height Height of the indicator, in pixels
+     * @return false if the snapshot must be recorded again
+     */
+    boolean isValid(@NonNull Canvas canvas, int width, int height) {
+        return mIsValid
+                && mWidth == width
+                && mHeight == height
+                && mIsRecordingNode == canRecordNode(canvas);
+    }
+
+    /**
+     * Discards the content of the snapshot, which must be recorded again before it is drawn
+     */
+    void invalidate() {
+        mIsValid = false;
+    }
+
+    /**
+     * Starts recording the snapshot. The content must be drawn on the returned canvas, then
+     * {@link #endRecording()} must be called.
+     *
+     * @param canvas Canvas of the indicator
+     * @param width  Width of the indicator, in pixels
+     * @param height Height of the indicator, in pixels
+     * @return Canvas to draw the content on
+     */
+    @NonNull
+    Canvas beginRecording(@NonNull Canvas canvas, int width, int height) {
+        if (mWidth != width || mHeight != height) {
+            release();
+            mWidth = width;
+            mHeight = height;
+        }
+        mIsRecordingNode = canRecordNode(canvas);
+        if (mIsRecordingNode) {
+            if (mNodeSnapshot == null) {
+                mNodeSnapshot = new NodeSnapshot();
+            }
+            return mNodeSnapshot.beginRecording(width, height);
+        }
+        if (mBitmap == null) {
+            mBitmap = Bitmap.createBitmap(Math.max(width, 1), Math.max(height, 1), Bitmap.Config.ARGB_8888);
+            mBitmapCanvas = new Canvas(mBitmap);
+        } else {
+            mBitmap.eraseColor(Color.TRANSPARENT);
+        }
+        return mBitmapCanvas;
+    }
+
+    /**
+     * Ends the recording started by {@link #beginRecording(Canvas, int, int)}
+     */
+    void endRecording() {
+        if (mIsRecordingNode) {
+            mNodeSnapshot.endRecording();
+        }
+        mIsValid = true;
+    }
+
+    /**
+     * Draws the snapshot at the top-left corner of the indicator
+     *
+     * @param canvas Canvas of the indicator
+     */
+    void draw(@NonNull Canvas canvas) {
+        if (mIsRecordingNode) {
+            mNodeSnapshot.draw(canvas);
+        } else {
+            canvas.drawBitmap(mBitmap, 0, 0, null);
+        }
+    }
+
+    /**
+     * Frees the memory held by the snapshot. It is recorded again when it is next drawn.
+     */
+    void release() {
+        mIsValid = false;
+        if (mBitmap != null) {
+            mBitmap.recycle();
+            mBitmap = null;
+            mBitmapCanvas = null;
+        }
+        if (mNodeSnapshot != null) {
+            mNodeSnapshot.release();
+        }
+    }
+
+    private static boolean canRecordNode(Canvas canvas) {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && canvas.isHardwareAccelerated();
+    }
+
+    /**
+     * Keeps the references to {@link RenderNode} out of the classes loaded on older versions
+     */
+    @RequiresApi(Build.VERSION_CODES.Q)
+    private static final class NodeSnapshot {
+        private final RenderNode mRenderNode = new RenderNode("StepViewIndicator");
+
+        Canvas beginRecording(int width, int height) {
+            mRenderNode.setPosition(0, 0, width, height);
+            return mRenderNode.beginRecording(width, height);
+        }
+
+        void endRecording() {
+            mRenderNode.endRecording();
+        }
+
+        void draw(Canvas canvas) {
+            canvas.drawRenderNode(mRenderNode);
+        }
+
+        void release() {
+            mRenderNode.discardDisplayList();
+        }
+    }
+}
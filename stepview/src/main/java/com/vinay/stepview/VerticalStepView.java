@@ -1,16 +1,17 @@
 package com.vinay.stepview;
 
 import android.content.Context;
-import android.graphics.Typeface;
+import android.graphics.Color;
+import androidx.annotation.NonNull;
+import androidx.core.view.MarginLayoutParamsCompat;
 import android.util.AttributeSet;
 import android.util.TypedValue;
-import android.view.View;
+import android.widget.LinearLayout;
+import android.widget.RelativeLayout;
 import android.widget.TextView;
 
 import com.vinay.stepview.models.Step;
 
-import java.util.List;
-
 /**
  * A {@link StepView} that displays steps vertically, with the name/text of the {@link Step} to the right
  * of the {@link android.graphics.drawable.Drawable Drawable} that represents its state.
@@ -23,58 +24,79 @@ public class VerticalStepView extends StepView implements StepViewIndicator.onUp
   }
 
   public VerticalStepView(Context context, AttributeSet attrs) {
-    this(context, attrs, 0);
+    this(context, attrs, R.attr.stepViewStyle);
   }
 
   public VerticalStepView(Context context, AttributeSet attrs, int defStyleAttr) {
     super(context, attrs, defStyleAttr);
     init();
+    applyAttributes(attrs, defStyleAttr);
   }
 
-  @Override
-  protected void updateView() {
-    List<Float> centerPointPositionList = mStepViewIndicator.getCircleCenterPointPositionList();
-    if (mStepList == null || centerPointPositionList.size() == 0) {
-      return;
-    }
-
-    if (mStepList.size() != mTextViewList.size()) {
-      return;
-    }
+  /**
+   * Sets whether the VerticalStepView is virtualized, for very long lists of steps.
+   * <p>
+   * A virtualized VerticalStepView scrolls its steps itself, within the height given by its parent.
+   * Only the steps in the viewport are drawn, and only those steps (plus a few above and below)
+   * have a label, which is recycled as the steps are scrolled. Memory use and the cost of a frame
+   * therefore depend on the height of the view rather than on the number of steps.
+   * <p>
+   * A virtualized VerticalStepView must have a bounded height (e.g. <code>match_parent</code>) and
+   * must not be placed in a ScrollView.
+   * <p>The default value is <code>false</code></p>
+   *
+   * @param isVirtualized - Whether the steps are virtualized
+   * @return The current {@link StepView} instance, for chaining
+   */
+  public StepView setVirtualized(boolean isVirtualized) {
+    setScrollEnabled(isVirtualized);
 
-    for (int i = 0; i < mStepList.size(); i++) {
-      Step step = mStepList.get(i);
-      TextView textView = mTextViewList.get(i);
+    return this;
+  }
 
-      textView.setTextSize(TypedValue.COMPLEX_UNIT_SP, mTextSize);
-      textView.setText(step.getName());
+  /**
+   * Returns whether the VerticalStepView is virtualized
+   *
+   * @return true if the steps are virtualized
+   * @see #setVirtualized(boolean)
+   */
+  public boolean isVirtualized() {
+    return mIsScrollable;
+  }
 
-      final int spec = MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
-      textView.measure(spec, spec);
-      textView.setY(centerPointPositionList.get(i) - (mStepViewIndicator.getCircleRadiusPx() / 2) - (mTextSize / 2));
-      switch (step.getState()) {
-        case CURRENT:
-          textView.setTypeface(null, Typeface.BOLD);
-          textView.setTextColor(mCurrentStepTextColor);
-          break;
-        case COMPLETED:
-          textView.setTypeface(null, Typeface.NORMAL);
-          textView.setTextColor(mCompletedStepTextColor);
-          break;
-        case NOT_COMPLETED:
-          textView.setTypeface(null, Typeface.NORMAL);
-          textView.setTextColor(mNotCompletedStepTextColor);
-          break;
-      }
-    }
+  @Override
+  protected boolean isVertical() {
+    return true;
+  }
 
-    mTextContainer.requestLayout();
+  @Override
+  protected void positionLabel(@NonNull TextView textView, int labelWidth, float stepCenter, int stepPosition) {
+    textView.setY(stepCenter - (mStepViewIndicator.getCircleRadiusPx() + mTextSize) / 2);
   }
 
+  /**
+   * Builds the children of the VerticalStepView, with the same layout params as
+   * <code>R.layout.vertical_step_view</code>, without inflating it.
+   */
   private void init() {
-    View rootView = inflate(getContext(), R.layout.vertical_step_view, this);
-    mStepViewIndicator = rootView.findViewById(R.id.steps_indicator);
+    Context context = getContext();
+    LinearLayout rootView = new LinearLayout(context);
+    rootView.setOrientation(HORIZONTAL);
+    rootView.setBackgroundColor(Color.TRANSPARENT);
+
+    mStepViewIndicator = new VerticalStepViewIndicator(context);
+    mStepViewIndicator.setId(R.id.steps_indicator);
     mStepViewIndicator.setOnUpdateIndicatorListener(this);
-    mTextContainer = rootView.findViewById(R.id.rl_text_container);
+    rootView.addView(mStepViewIndicator, new LinearLayout.LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT));
+
+    mTextContainer = new RelativeLayout(context);
+    mTextContainer.setId(R.id.rl_text_container);
+    LinearLayout.LayoutParams textContainerParams = new LinearLayout.LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.MATCH_PARENT);
+    final int textContainerMargin = (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 16, getResources().getDisplayMetrics());
+    textContainerParams.leftMargin = textContainerMargin;
+    MarginLayoutParamsCompat.setMarginStart(textContainerParams, textContainerMargin);
+    rootView.addView(mTextContainer, textContainerParams);
+
+    addView(rootView, new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT));
   }
 }
@@ -2,16 +2,16 @@ package com.vinay.stepview;
 
 import android.content.Context;
 import android.graphics.Canvas;
-import android.graphics.Color;
+import android.graphics.Path;
+import android.graphics.Rect;
+import androidx.annotation.NonNull;
+import android.text.Layout;
 import android.util.AttributeSet;
 
-import com.vinay.stepview.models.Step;
-
 class VerticalStepViewIndicator extends StepViewIndicator {
 
     private float mCenterX;
-    private float mLeftY;
-    private float mRightY;
+    private int mLabelLeft; // Left edge of the labels drawn next to the step icons
 
     private int mHeight;
 
@@ -41,114 +41,111 @@ class VerticalStepViewIndicator extends StepViewIndicator {
             // Length of lines between N steps [ = (N - 1) line lengths]
             mHeight = (int) (getPaddingTop()
                     + getPaddingBottom()
-                    + (mCircleRadius * 2 * numSteps)
-                    + ((numSteps - 1) * mLineLength));
+                    + StepLayoutEngine.getContentLength(numSteps, mCircleRadius, mLineLength));
         }
-        if (MeasureSpec.UNSPECIFIED != MeasureSpec.getMode(widthMeasureSpec)) {
+        if (mLabelRenderer != null) {
+            // The labels are drawn to the right of the step icons, so take all the available width
+            if (MeasureSpec.UNSPECIFIED != MeasureSpec.getMode(widthMeasureSpec)) {
+                width = MeasureSpec.getSize(widthMeasureSpec);
+            } else {
+                width += LABEL_MARGIN + getMaxLabelWidth();
+            }
+        } else if (MeasureSpec.UNSPECIFIED != MeasureSpec.getMode(widthMeasureSpec)) {
             width = Math.min(width, MeasureSpec.getSize(widthMeasureSpec));
         }
         setMeasuredDimension(width, mHeight);
 
     }
 
+    @Override
+    boolean computeLayout() {
+        return mLayoutEngine.layout(getNumOfSteps(), mHeight, mCircleRadius, mLineLength, mIsReverseDraw, false);
+    }
+
+    @Override
+    void setStepDirtyRect(@NonNull Rect outRect, float start, float end) {
+        outRect.set((int) Math.floor(mCenterX - mCircleRadius), (int) Math.floor(start),
+                (int) Math.ceil(mCenterX + mCircleRadius), (int) Math.ceil(end));
+    }
+
     @Override
     protected void onSizeChanged(int w, int h, int oldW, int oldH) {
         super.onSizeChanged(w, h, oldW, oldH);
-        mCenterX = getWidth() / 2;
-        mLeftY = mCenterX - (mCompletedLineHeight / 2);
-        mRightY = mCenterX + (mCompletedLineHeight / 2);
+        // The step icons are drawn in a column at the left edge, followed by the labels if any
+        final int iconColumnWidth = Math.min(DEFAULT_STEP_INDICATOR_DIMENSION, getWidth());
+        mCenterX = iconColumnWidth / 2;
+        mLabelLeft = iconColumnWidth + LABEL_MARGIN;
+        mLinesDirty = true;
 
-        mCircleCenterPointPositionList.clear();
-        final int numSteps = getNumOfSteps();
-        for (int i = 0; i < numSteps; i++) {
-            if (mIsReverseDraw) {
-                mCircleCenterPointPositionList.add(mHeight - (mCircleRadius + i * mCircleRadius * 2 + i * mLineLength));
-            } else {
-                mCircleCenterPointPositionList.add(mCircleRadius + i * mCircleRadius * 2 + i * mLineLength);
-            }
-        }
-
-        if (mUpdateIndicatorListener != null) {
-            mUpdateIndicatorListener.onIndicatorUpdated();
-        }
+        updateLayout();
     }
 
     @Override
-    protected void onDraw(Canvas canvas) {
-        super.onDraw(canvas);
-        if (mUpdateIndicatorListener != null) {
-            mUpdateIndicatorListener.onIndicatorUpdated();
-        }
+    void drawSteps(@NonNull Canvas canvas) {
         mNotCompletedLinePaint.setColor(mNotCompletedLineColor);
         mCompletedLinePaint.setColor(mCompletedLineColor);
 
-        // Draw line from step circle to the next, customizing the line styling based on the step state
-        for (int i = 0; i < mCircleCenterPointPositionList.size() - 1; i++) {
-            // Centre coordinate of the current step's circle
-            final float stepXPosition = mCircleCenterPointPositionList.get(i);
-            // Centre coordinate of the next step's circle
-            final float nextStepXPosition = mCircleCenterPointPositionList.get(i + 1);
-
-            Step nextStep = mStepList.get(i + 1);
-
-            /*
-             * If the next step is in completed state, draw a thin rectangle
-             * leading to or leading from the completed step drawable (depending on mIsReverseDraw)
-             * that represents the completed line
-             */
-            if (nextStep.getState() == Step.State.COMPLETED) {
-                if (mIsReverseDraw) {
-                    canvas.drawRect(mLeftY, nextStepXPosition + mCircleRadius - 10, mRightY, stepXPosition - mCircleRadius + 10, mCompletedLinePaint);
-                } else {
-                    canvas.drawRect(mLeftY, stepXPosition + mCircleRadius - 10, mRightY, nextStepXPosition - mCircleRadius + 10, mCompletedLinePaint);
-                }
-            }
-            /*
-             * If the step is in not completed state (current or not-completed),
-             * draw a dotted line leading to or from the step drawable (depending on mIsReverseDraw)
-             */
-            else {
-                if (mNotCompletedLineType) {
-                    if (mIsReverseDraw) {
-                        mPath.moveTo(mCenterX, nextStepXPosition + mCircleRadius);
-                        mPath.lineTo(mCenterX, stepXPosition - mCircleRadius);
-                        canvas.drawPath(mPath, mNotCompletedLinePaint);
-                    } else {
-                        mPath.moveTo(mCenterX, stepXPosition + mCircleRadius);
-                        mPath.lineTo(mCenterX, nextStepXPosition - mCircleRadius);
-                        canvas.drawPath(mPath, mNotCompletedLinePaint);
-                    }
-                } else {
-                    if (mIsReverseDraw) {
-                        canvas.drawRect(mLeftY, nextStepXPosition + mCircleRadius - 10, mRightY, stepXPosition - mCircleRadius + 10, mNotCompletedLinePaint);
-                    } else {
-                        canvas.drawRect(mLeftY, stepXPosition + mCircleRadius - 10, mRightY, nextStepXPosition - mCircleRadius + 10, mNotCompletedLinePaint);
-                    }
-                }
-                mPath.reset();
-            }
+        // Draw the lines from each step circle to the next, in one call per line style
+        computeDrawnRange();
+        updateLines();
+        drawLines(canvas);
 
+        // Draw Step icons, rasterized at the size of the step circles
+        resolveStepIcons();
+        for (int i = mFirstDrawnStep; i <= mLastDrawnStep; i++) {
+            drawStepIcon(canvas, i);
         }
 
-        // Draw Step icons
-        for (int i = 0; i < mCircleCenterPointPositionList.size(); i++) {
-            final float stepXPosition = mCircleCenterPointPositionList.get(i);
-            mRect.set((int) (mCenterX - mCircleRadius), (int) (stepXPosition - mCircleRadius), (int) (mCenterX + mCircleRadius), (int) (stepXPosition + mCircleRadius));
-            Step step = mStepList.get(i);
-            switch (step.getState()) {
-                case COMPLETED:
-                    mCompletedStepIcon.setBounds(mRect);
-                    mCompletedStepIcon.draw(canvas);
-                    break;
-                case CURRENT:
-                    mCompletedLinePaint.setColor(Color.WHITE);
-                    mCurrentStepIcon.setBounds(mRect);
-                    mCurrentStepIcon.draw(canvas);
-                    break;
-                default:
-                    mNotCompletedStepIcon.setBounds(mRect);
-                    mNotCompletedStepIcon.draw(canvas);
+        // Draw the labels to the right of the step icons, vertically centered on them
+        if (mLabelRenderer != null) {
+            for (int i = mFirstDrawnStep; i <= mLastDrawnStep; i++) {
+                drawStepLabel(canvas, i);
             }
         }
     }
+
+    @Override
+    void drawStepIcon(@NonNull Canvas canvas, int stepPosition) {
+        final float iconOffset = mIconSize / 2f;
+        drawStepIcon(canvas, stepPosition,
+                (int) (mCenterX - iconOffset), (int) (mLayoutEngine.getCenter(stepPosition) - iconOffset));
+    }
+
+    @Override
+    float getLabelLeft(int stepPosition, @NonNull Layout labelLayout) {
+        return mLabelLeft;
+    }
+
+    @Override
+    float getLabelTop(int stepPosition, @NonNull Layout labelLayout) {
+        return mLayoutEngine.getLabelStart(stepPosition, labelLayout.getHeight());
+    }
+
+    @Override
+    void setSolidLine(@NonNull float[] points, int offset, float start, float end) {
+        points[offset] = mCenterX;
+        points[offset + 1] = start;
+        points[offset + 2] = mCenterX;
+        points[offset + 3] = end;
+    }
+
+    @Override
+    void addDashedLine(@NonNull Path path, float start, float end) {
+        path.moveTo(mCenterX, start);
+        path.lineTo(mCenterX, end);
+    }
+
+    /**
+     * Returns the width of the widest label, which is only needed when the width of the
+     * indicator is unconstrained
+     *
+     * @return Width, in pixels
+     */
+    private int getMaxLabelWidth() {
+        int maxWidth = 0;
+        for (int i = 0; i < getNumOfSteps(); i++) {
+            maxWidth = Math.max(maxWidth, mLabelRenderer.getLayout(mStepList, i).getWidth());
+        }
+        return maxWidth;
+    }
 }
@@ -0,0 +1,174 @@
+package com.vinay.stepview.models;
+
+import androidx.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * The name, state and progress of a step, as a value that cannot be modified. Unlike a
+ * {@link Step}, it has no setters: a modified copy is created with {@link #withState(Step.State)},
+ * {@link #withName(String)} or {@link #withProgress(float)}, and {@link #toStep()} creates a Step
+ * with the same values.
+ * <p>
+ * Immutable steps can be shared between threads and between StepViews, e.g. by the rows of a
+ * list. Their hash code is computed once, so comparing two of them is cheap, and the names given
+ * to {@link #of(String)} and {@link #withName(String)} are interned, so equal names are shared. A {@link StepList} of immutable steps lets a StepView tell that the steps it is
+ * given are the ones it already displays without re-reading them.
+ */
+public final class ImmutableStep {
+
+  private final String name;
+  private final Step.State state;
+  private final float progress;
+  private final int hashCode;
+
+  private ImmutableStep(@NonNull String name, @NonNull Step.State state, float progress) {
+    this.name = name;
+    this.state = state;
+    this.progress = Math.max(0, Math.min(progress, 1));
+    this.hashCode = Step.hashCode(name, state, this.progress);
+  }
+
+  /**
+   * Returns an immutable Step with the given name, that is not completed
+   *
+   * @param name The name of the Step
+   * @return The immutable Step
+   */
+  @NonNull
+  public static ImmutableStep of(@NonNull String name) {
+    return new ImmutableStep(name.intern(), Step.State.NOT_COMPLETED, 0);
+  }
+
+  /**
+   * Returns an immutable Step with the given name and state
+   *
+   * @param name  The name of the Step
+   * @param state The state of the Step
+   * @return The immutable Step
+   */
+  @NonNull
+  public static ImmutableStep of(@NonNull String name, @NonNull Step.State state) {
+    return new ImmutableStep(name.intern(), state, 0);
+  }
+
+  /**
+   * Returns an immutable copy of the given Step. Its name is not interned, since copies are
+   * usually made of every step of a list, see {@link StepList#withSteps(List)}.
+   *
+   * @param step The Step to copy
+   * @return The immutable Step
+   */
+  @NonNull
+  public static ImmutableStep copyOf(@NonNull Step step) {
+    return new ImmutableStep(step.getName(), step.getState(), step.getProgress());
+  }
+
+  /**
+   * Returns a new {@link Step} with the name, state and progress of this Step. Changing the
+   * returned Step does not change this one.
+   *
+   * @return The Step
+   */
+  @NonNull
+  public Step toStep() {
+    Step step = new Step(name, state);
+    step.setProgress(progress);
+    return step;
+  }
+
+  /**
+   * Returns a copy of this Step with the given state
+   *
+   * @param state The state of the copy
+   * @return The copy, or this Step if it already has the given state
+   */
+  @NonNull
+  public ImmutableStep withState(@NonNull Step.State state) {
+    return state == this.state ? this : new ImmutableStep(name, state, progress);
+  }
+
+  /**
+   * Returns a copy of this Step with the given name
+   *
+   * @param name The name of the copy
+   * @return The copy, or this Step if it already has the given name
+   */
+  @NonNull
+  public ImmutableStep withName(@NonNull String name) {
+    return name.equals(this.name) ? this : new ImmutableStep(name.intern(), state, progress);
+  }
+
+  /**
+   * Returns a copy of this Step with the given progress, see {@link Step#setProgress(float)}
+   *
+   * @param progress The progress of the copy, from 0 to 1. Values outside this range are clamped.
+   * @return The copy, or this Step if it already has the given progress
+   */
+  @NonNull
+  public ImmutableStep withProgress(float progress) {
+    return Math.max(0, Math.min(progress, 1)) == this.progress ? this : new ImmutableStep(name, state, progress);
+  }
+
+  /**
+   * Returns the name of the Step
+   *
+   * @return Name of the step
+   */
+  @NonNull
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the state of completion of the Step
+   *
+   * @return The state of the Step
+   */
+  @NonNull
+  public Step.State getState() {
+    return state;
+  }
+
+  /**
+   * Returns the progress of the Step towards completion, see {@link Step#setProgress(float)}
+   *
+   * @return Progress, from 0 to 1
+   */
+  public float getProgress() {
+    return progress;
+  }
+
+  /**
+   * Returns whether the given Step has the name, state and progress of this one
+   */
+  boolean hasValuesOf(@NonNull Step step) {
+    return state == step.getState()
+        && Float.floatToIntBits(progress) == Float.floatToIntBits(step.getProgress())
+        && name.equals(step.getName());
+  }
+
+  /**
+   * Immutable steps are equal if they have the same name, state and progress. An immutable step
+   * is never equal to a {@link Step}, but has the same hash code as a Step with the same values.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ImmutableStep)) {
+      return false;
+    }
+    ImmutableStep other = (ImmutableStep) o;
+    return hashCode == other.hashCode
+        && state == other.state
+        && Float.floatToIntBits(progress) == Float.floatToIntBits(other.progress)
+        && (name == other.name || name.equals(other.name));
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+}
@@ -33,6 +33,7 @@ public class Step {
 
   private String name;
   private State state;
+  private float progress;
 
   /**
    * Returns the name of the Step
@@ -72,6 +73,26 @@ public class Step {
     this.state = state;
   }
 
+  /**
+   * Returns the progress of the Step towards completion
+   *
+   * @return Progress, from 0 to 1
+   */
+  public float getProgress() {
+    return progress;
+  }
+
+  /**
+   * Sets the progress of the Step towards completion, e.g. the progress of an upload.
+   * The line leading to a Step that is not completed is filled in proportion to its progress.
+   * The progress of the first Step is not displayed, since no line leads to it.
+   *
+   * @param progress The progress of the Step, from 0 to 1. Values outside this range are clamped.
+   */
+  public void setProgress(float progress) {
+    this.progress = Math.max(0, Math.min(progress, 1));
+  }
+
   /**
    * Creates a new Step with the given name.
    * The state of the Step defaults to NOT_COMPLETED
@@ -92,4 +113,39 @@ public class Step {
     this.name = name;
     this.state = state;
   }
+
+  /**
+   * Steps are equal if they have the same name, state and progress, so a Step is found in a list
+   * of copies of the steps, e.g. {@link com.vinay.stepview.StepView#getSteps()}.
+   * An {@link ImmutableStep} with the same values has the same hash code.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Step)) {
+      return false;
+    }
+    Step other = (Step) o;
+    return name.equals(other.name)
+        && state == other.state
+        && Float.floatToIntBits(progress) == Float.floatToIntBits(other.progress);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode(name, state, progress);
+  }
+
+  /**
+   * Hash code of a step with the given values, shared with {@link ImmutableStep} so that a list
+   * of immutable steps has the hash code of a list of equal Steps
+   */
+  static int hashCode(String name, State state, float progress) {
+    int hashCode = name.hashCode();
+    hashCode = 31 * hashCode + state.ordinal();
+    hashCode = 31 * hashCode + Float.floatToIntBits(progress);
+    return hashCode;
+  }
 }
@@ -0,0 +1,287 @@
+package com.vinay.stepview.models;
+
+import androidx.annotation.NonNull;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of {@link ImmutableStep}s, which can be shared between threads and between
+ * StepViews. Modified copies are created with {@link #with(int, Step)}, {@link #withState(int, Step.State)},
+ * {@link #withAdded(int, Step)} and {@link #withRemoved(int)}: they share the steps that did not
+ * change with the list they were created from.
+ * <p>
+ * A StepView given a StepList holds it as is, instead of the caller's mutable list, and replaces
+ * it with a modified copy when its steps are changed with
+ * {@link com.vinay.stepview.StepView#setStepState(Step.State, int)} or an Editor. Since a StepList
+ * cannot change, giving a StepView the list it already displays is detected in constant time. The
+ * hash code of a StepList is computed once, so a list that differs is usually detected in
+ * constant time too, and an equal list with one cheap comparison per step.
+ * <p>
+ * As a {@link List} of {@link Step}s, a StepList is a snapshot: {@link #get(int)} returns a new
+ * Step, and modifying it does not change the list, which cannot be modified either. The steps
+ * returned are equal to the Steps with the same values, so a StepList equals any list of equal
+ * Steps and has the same hash code. {@link #getImmutableStep(int)} returns the immutable step
+ * itself, without creating a Step.
+ */
+public final class StepList extends AbstractList<Step> implements RandomAccess {
+
+  private static final StepList EMPTY = new StepList(new ImmutableStep[0]);
+
+  private final ImmutableStep[] steps;
+  private final int hashCode;
+
+  private StepList(ImmutableStep[] steps) {
+    this.steps = steps;
+    this.hashCode = Arrays.hashCode(steps); // Same as List.hashCode() of equal Steps
+  }
+
+  /**
+   * Returns an empty StepList
+   *
+   * @return The empty StepList
+   */
+  @NonNull
+  public static StepList empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Returns a StepList with immutable copies of the given steps, or the list itself if it is a StepList
+   *
+   * @param steps The steps
+   * @return The StepList
+   */
+  @NonNull
+  public static StepList of(@NonNull List<? extends Step> steps) {
+    if (steps instanceof StepList) {
+      return (StepList) steps;
+    }
+    ImmutableStep[] immutableSteps = new ImmutableStep[steps.size()];
+    for (int i = 0; i < immutableSteps.length; i++) {
+      immutableSteps[i] = ImmutableStep.copyOf(steps.get(i));
+    }
+    return new StepList(immutableSteps);
+  }
+
+  /**
+   * Returns a StepList with the given steps, sharing the steps of this list that are equal to them
+   * at the same position. Only the steps that differ are copied, so receiving mostly unchanged
+   * steps, e.g. on every poll of a server, allocates little.
+   *
+   * @param steps The steps
+   * @return The StepList: this list if the steps are equal to its steps, or the given list itself
+   * if it is a StepList
+   */
+  @NonNull
+  public StepList withSteps(@NonNull List<? extends Step> steps) {
+    if (steps instanceof StepList) {
+      return (StepList) steps;
+    }
+    final int size = steps.size();
+    ImmutableStep[] newSteps = size == this.steps.length ? null : new ImmutableStep[size];
+    for (int i = 0; i < size; i++) {
+      Step step = steps.get(i);
+      ImmutableStep immutableStep = i < this.steps.length && this.steps[i].hasValuesOf(step)
+          ? this.steps[i]
+          : null;
+      if (immutableStep == null && newSteps == null) {
+        // First step that differs
+        newSteps = new ImmutableStep[size];
+        System.arraycopy(this.steps, 0, newSteps, 0, i);
+      }
+      if (newSteps != null) {
+        newSteps[i] = immutableStep != null ? immutableStep : ImmutableStep.copyOf(step);
+      }
+    }
+    return newSteps == null ? this : new StepList(newSteps);
+  }
+
+  /**
+   * Returns a StepList with immutable copies of the given steps
+   *
+   * @param steps The steps
+   * @return The StepList
+   */
+  @NonNull
+  public static StepList of(@NonNull Step... steps) {
+    return of(Arrays.asList(steps));
+  }
+
+  /**
+   * Returns a StepList with the given immutable steps
+   *
+   * @param steps The steps
+   * @return The StepList
+   */
+  @NonNull
+  public static StepList of(@NonNull ImmutableStep... steps) {
+    return new StepList(steps.clone());
+  }
+
+  /**
+   * Returns a new {@link Step} with the values of the step at the given position. Modifying it
+   * does not change this list, see {@link #with(int, Step)}.
+   *
+   * @param index The position of the step
+   * @return A copy of the step
+   * @throws IndexOutOfBoundsException if the position exceeds the size of the list
+   */
+  @NonNull
+  @Override
+  public Step get(int index) {
+    return steps[index].toStep();
+  }
+
+  /**
+   * Returns the immutable step at the given position
+   *
+   * @param index The position of the step
+   * @return The step
+   * @throws IndexOutOfBoundsException if the position exceeds the size of the list
+   */
+  @NonNull
+  public ImmutableStep getImmutableStep(int index) {
+    return steps[index];
+  }
+
+  @Override
+  public int size() {
+    return steps.length;
+  }
+
+  /**
+   * Returns a copy of this list with the step at the given position replaced
+   *
+   * @param index The position of the step to replace
+   * @param step  The new step, which is copied
+   * @return The copy, or this list if the new step is equal to the step it replaces
+   * @throws IndexOutOfBoundsException if the position exceeds the size of the list
+   */
+  @NonNull
+  public StepList with(int index, @NonNull Step step) {
+    return with(index, ImmutableStep.copyOf(step));
+  }
+
+  /**
+   * Returns a copy of this list with the step at the given position replaced
+   *
+   * @param index The position of the step to replace
+   * @param step  The new step
+   * @return The copy, or this list if the new step is equal to the step it replaces
+   * @throws IndexOutOfBoundsException if the position exceeds the size of the list
+   */
+  @NonNull
+  public StepList with(int index, @NonNull ImmutableStep step) {
+    if (step.equals(steps[index])) {
+      return this;
+    }
+    ImmutableStep[] newSteps = steps.clone();
+    newSteps[index] = step;
+    return new StepList(newSteps);
+  }
+
+  /**
+   * Returns a copy of this list with the state of the step at the given position changed
+   *
+   * @param index The position of the step
+   * @param state The new state of the step
+   * @return The copy, or this list if the step already has the given state
+   * @throws IndexOutOfBoundsException if the position exceeds the size of the list
+   */
+  @NonNull
+  public StepList withState(int index, @NonNull Step.State state) {
+    return with(index, steps[index].withState(state));
+  }
+
+  /**
+   * Returns a copy of this list with a step inserted at the given position
+   *
+   * @param index The position at which the step is inserted, which may be the size of the list
+   * @param step  The step to insert, which is copied
+   * @return The copy
+   * @throws IndexOutOfBoundsException if the position exceeds the size of the list
+   */
+  @NonNull
+  public StepList withAdded(int index, @NonNull Step step) {
+    if (index < 0 || index > steps.length) {
+      throw new IndexOutOfBoundsException(String.format("Invalid step position %d. The list of steps has %d items", index, steps.length));
+    }
+    ImmutableStep[] newSteps = new ImmutableStep[steps.length + 1];
+    System.arraycopy(steps, 0, newSteps, 0, index);
+    newSteps[index] = ImmutableStep.copyOf(step);
+    System.arraycopy(steps, index, newSteps, index + 1, steps.length - index);
+    return new StepList(newSteps);
+  }
+
+  /**
+   * Returns a copy of this list without the step at the given position
+   *
+   * @param index The position of the step to remove
+   * @return The copy
+   * @throws IndexOutOfBoundsException if the position exceeds the size of the list
+   */
+  @NonNull
+  public StepList withRemoved(int index) {
+    if (index < 0 || index >= steps.length) {
+      throw new IndexOutOfBoundsException(String.format("Invalid step position %d. The list of steps has %d items", index, steps.length));
+    }
+    ImmutableStep[] newSteps = new ImmutableStep[steps.length - 1];
+    System.arraycopy(steps, 0, newSteps, 0, index);
+    System.arraycopy(steps, index + 1, newSteps, index, steps.length - index - 1);
+    return new StepList(newSteps);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o instanceof StepList) {
+      StepList other = (StepList) o;
+      return hashCode == other.hashCode && Arrays.equals(steps, other.steps);
+    }
+    if (!(o instanceof List) || ((List<?>) o).size() != steps.length) {
+      return false;
+    }
+    // Compared step by step, without creating a Step for each of them
+    int i = 0;
+    for (Object step : (List<?>) o) {
+      if (!(step instanceof Step) || !steps[i++].hasValuesOf((Step) step)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int indexOf(Object o) {
+    if (o instanceof Step) {
+      for (int i = 0; i < steps.length; i++) {
+        if (steps[i].hasValuesOf((Step) o)) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public int lastIndexOf(Object o) {
+    if (o instanceof Step) {
+      for (int i = steps.length - 1; i >= 0; i--) {
+        if (steps[i].hasValuesOf((Step) o)) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+}
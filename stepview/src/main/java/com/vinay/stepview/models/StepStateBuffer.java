@@ -0,0 +1,529 @@
+package com.vinay.stepview.models;
+
+import androidx.annotation.NonNull;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A mutable list of steps for very long lists of steps (e.g. an audit trail of thousands of
+ * events), which does not hold one {@link Step} object per step. Each step is packed in primitive
+ * arrays: its state in a byte, and its name as an int id in a table of the distinct names, so a
+ * step takes 5 bytes, plus 4 bytes once any step has a progress.
+ * <p>
+ * A StepView given a StepStateBuffer reads the states, names and progress of the steps directly
+ * from the arrays when drawing and updating them, and changes them in place. It does not copy the
+ * buffer: the buffer records its changes since the StepView last applied them, see
+ * {@link #getVersion()}, so setting it again only costs the steps that changed. A displayed step
+ * takes 12 more bytes for its position in the indicator and, for labels drawn on the canvas, a
+ * reference to the layout of its label. The steps are better
+ * added with {@link #add(String, Step.State)} and read with {@link #getState(int)},
+ * {@link #getName(int)} and {@link #getProgress(int)}: {@link #get(int)} creates a new
+ * {@link Step} with the values of the step, which is not backed by the buffer.
+ * <p>
+ * Names are kept in the table until the buffer is cleared, even after the steps that had them are
+ * removed or renamed. Like other mutable lists, a StepStateBuffer must only be used on the main
+ * thread once it is given to a StepView, and its changes are recorded for a single StepView.
+ */
+public final class StepStateBuffer extends AbstractList<Step> implements RandomAccess {
+
+  private static final int DEFAULT_CAPACITY = 16;
+  private static final Step.State[] STATES = Step.State.values(); // values() copies the array on each call
+
+  private int size;
+  private byte[] states;
+  private int[] nameIds;
+  private float[] progress; // null until a step has a progress
+
+  // Table of the distinct names, by id
+  private String[] names = new String[DEFAULT_CAPACITY];
+  private final HashMap<String, Integer> nameIdsByName = new HashMap<>();
+
+  // Changes made since clearChanges(). Changed steps are recorded with their previous values until
+  // steps are inserted or removed, after which a copy of the previous steps is kept instead.
+  private int version;
+  private boolean isStructureChanged;
+  private StepStateBuffer previousSteps; // Copy of the steps before the first insertion or removal, or null
+  private final BitSet changedSteps = new BitSet();
+  private int changeCount;
+  private int[] changedPositions = new int[0];
+  private byte[] previousStates = new byte[0];
+  private int[] previousNameIds = new int[0];
+  private float[] previousProgress = new float[0];
+
+  /**
+   * Creates an empty buffer
+   */
+  public StepStateBuffer() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates an empty buffer with room for the given number of steps
+   *
+   * @param capacity Number of steps that can be added without growing the buffer
+   */
+  public StepStateBuffer(int capacity) {
+    states = new byte[capacity];
+    nameIds = new int[capacity];
+  }
+
+  /**
+   * Returns a buffer with the names, states and progress of the given steps. A StepStateBuffer
+   * is copied with its arrays, and shares its names with the copy.
+   *
+   * @param steps The steps
+   * @return The buffer
+   */
+  @NonNull
+  public static StepStateBuffer of(@NonNull List<? extends Step> steps) {
+    if (steps instanceof StepStateBuffer) {
+      return copyOf((StepStateBuffer) steps);
+    }
+    final int stepCount = steps.size();
+    StepStateBuffer buffer = new StepStateBuffer(stepCount);
+    for (int i = 0; i < stepCount; i++) {
+      buffer.add(i, steps.get(i));
+    }
+    return buffer;
+  }
+
+  private static StepStateBuffer copyOf(StepStateBuffer buffer) {
+    StepStateBuffer copy = new StepStateBuffer(0);
+    copy.size = buffer.size;
+    copy.states = Arrays.copyOf(buffer.states, buffer.size);
+    copy.nameIds = Arrays.copyOf(buffer.nameIds, buffer.size);
+    copy.progress = buffer.progress == null ? null : Arrays.copyOf(buffer.progress, buffer.size);
+    copy.names = buffer.names.clone();
+    copy.nameIdsByName.putAll(buffer.nameIdsByName);
+    return copy;
+  }
+
+  /**
+   * Appends a step
+   *
+   * @param name  The name of the step
+   * @param state The state of the step
+   */
+  public void add(@NonNull String name, @NonNull Step.State state) {
+    insert(size, name, state, 0);
+  }
+
+  /**
+   * Returns the state of the step at the given position
+   *
+   * @param index The position of the step
+   * @return The state of the step
+   * @throws IndexOutOfBoundsException if the position exceeds the size of the list
+   */
+  @NonNull
+  public Step.State getState(int index) {
+    checkIndex(index);
+    return STATES[states[index]];
+  }
+
+  /**
+   * Sets the state of the step at the given position
+   *
+   * @param index The position of the step
+   * @param state The new state of the step
+   * @throws IndexOutOfBoundsException if the position exceeds the size of the list
+   */
+  public void setState(int index, @NonNull Step.State state) {
+    checkIndex(index);
+    final byte newState = (byte) state.ordinal();
+    if (states[index] != newState) {
+      recordChange(index);
+      states[index] = newState;
+    }
+  }
+
+  /**
+   * Returns the name of the step at the given position
+   *
+   * @param index The position of the step
+   * @return The name of the step
+   * @throws IndexOutOfBoundsException if the position exceeds the size of the list
+   */
+  @NonNull
+  public String getName(int index) {
+    checkIndex(index);
+    return names[nameIds[index]];
+  }
+
+  /**
+   * Sets the name of the step at the given position
+   *
+   * @param index The position of the step
+   * @param name  The new name of the step
+   * @throws IndexOutOfBoundsException if the position exceeds the size of the list
+   */
+  public void setName(int index, @NonNull String name) {
+    checkIndex(index);
+    final int nameId = getNameId(name);
+    if (nameIds[index] != nameId) {
+      recordChange(index);
+      nameIds[index] = nameId;
+    }
+  }
+
+  /**
+   * Returns the progress of the step at the given position, see {@link Step#getProgress()}
+   *
+   * @param index The position of the step
+   * @return The progress of the step, from 0 to 1
+   * @throws IndexOutOfBoundsException if the position exceeds the size of the list
+   */
+  public float getProgress(int index) {
+    checkIndex(index);
+    return progress == null ? 0 : progress[index];
+  }
+
+  /**
+   * Sets the progress of the step at the given position, see {@link Step#setProgress(float)}
+   *
+   * @param index    The position of the step
+   * @param progress The progress of the step, from 0 to 1. Values outside this range are clamped.
+   * @throws IndexOutOfBoundsException if the position exceeds the size of the list
+   */
+  public void setProgress(int index, float progress) {
+    checkIndex(index);
+    progress = Math.max(0, Math.min(progress, 1));
+    if (progress == (this.progress == null ? 0 : this.progress[index])) {
+      return;
+    }
+    recordChange(index);
+    if (this.progress == null) {
+      this.progress = new float[states.length];
+    }
+    this.progress[index] = progress;
+  }
+
+  /**
+   * Returns a new {@link Step} with the name, state and progress of the step at the given
+   * position. Changing the returned step does not change the buffer, and the other way around.
+   *
+   * @param index The position of the step
+   * @return A copy of the step
+   * @throws IndexOutOfBoundsException if the position exceeds the size of the list
+   */
+  @NonNull
+  @Override
+  public Step get(int index) {
+    Step step = new Step(getName(index), getState(index));
+    step.setProgress(getProgress(index));
+    return step;
+  }
+
+  /**
+   * Sets the name, state and progress of the step at the given position to those of the given step
+   *
+   * @param index The position of the step
+   * @param step  The step to copy
+   * @return A copy of the step that was at the given position
+   * @throws IndexOutOfBoundsException if the position exceeds the size of the list
+   */
+  @NonNull
+  @Override
+  public Step set(int index, @NonNull Step step) {
+    final Step previousStep = get(index);
+    setName(index, step.getName());
+    setState(index, step.getState());
+    setProgress(index, step.getProgress());
+    return previousStep;
+  }
+
+  /**
+   * Inserts a step with the name, state and progress of the given step
+   *
+   * @param index The position at which the step is inserted, which may be the size of the list
+   * @param step  The step to copy
+   * @throws IndexOutOfBoundsException if the position exceeds the size of the list
+   */
+  @Override
+  public void add(int index, @NonNull Step step) {
+    if (index < 0 || index > size) {
+      throw new IndexOutOfBoundsException(String.format("Invalid step position %d. The list of steps has %d items", index, size));
+    }
+    insert(index, step.getName(), step.getState(), step.getProgress());
+  }
+
+  /**
+   * Removes the step at the given position
+   *
+   * @param index The position of the step
+   * @return A copy of the removed step
+   * @throws IndexOutOfBoundsException if the position exceeds the size of the list
+   */
+  @NonNull
+  @Override
+  public Step remove(int index) {
+    final Step removedStep = get(index);
+    recordStructureChange();
+    final int moved = size - index - 1;
+    System.arraycopy(states, index + 1, states, index, moved);
+    System.arraycopy(nameIds, index + 1, nameIds, index, moved);
+    if (progress != null) {
+      System.arraycopy(progress, index + 1, progress, index, moved);
+      progress[size - 1] = 0;
+    }
+    size--;
+    modCount++;
+    return removedStep;
+  }
+
+  /**
+   * Removes all the steps, and the names they had from the table of names
+   */
+  @Override
+  public void clear() {
+    recordStructureChange();
+    size = 0;
+    progress = null;
+    Arrays.fill(names, null);
+    nameIdsByName.clear();
+    modCount++;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the number of distinct names in the table of names
+   *
+   * @return Number of names
+   */
+  public int getNameCount() {
+    return nameIdsByName.size();
+  }
+
+  private void insert(int index, String name, Step.State state, float progress) {
+    recordStructureChange();
+    if (size == states.length) {
+      final int capacity = Math.max(DEFAULT_CAPACITY, size * 2);
+      states = Arrays.copyOf(states, capacity);
+      nameIds = Arrays.copyOf(nameIds, capacity);
+      if (this.progress != null) {
+        this.progress = Arrays.copyOf(this.progress, capacity);
+      }
+    }
+    final int moved = size - index;
+    System.arraycopy(states, index, states, index + 1, moved);
+    System.arraycopy(nameIds, index, nameIds, index + 1, moved);
+    if (this.progress != null) {
+      System.arraycopy(this.progress, index, this.progress, index + 1, moved);
+      this.progress[index] = 0;
+    }
+    states[index] = (byte) state.ordinal();
+    nameIds[index] = getNameId(name);
+    size++;
+    modCount++;
+    setProgress(index, progress);
+  }
+
+  /**
+   * Returns the number of changes made to the buffer: it changes whenever the name, state or
+   * progress of a step changes, or steps are inserted or removed. A StepView records it when it
+   * applies the buffer, so setting the buffer again without changing it costs nothing.
+   *
+   * @return The version of the buffer
+   */
+  public int getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns whether steps were inserted or removed since {@link #clearChanges()} was last called
+   *
+   * @return true if the structure of the buffer changed
+   */
+  public boolean isStructureChanged() {
+    return isStructureChanged;
+  }
+
+  /**
+   * Returns the number of steps whose name, state or progress changed since
+   * {@link #clearChanges()} was last called. Once steps are inserted or removed, changed steps are
+   * no longer recorded, see {@link #getPreviousSteps()}.
+   *
+   * @return Number of changed steps, each recorded once
+   */
+  public int getChangedStepCount() {
+    return changeCount;
+  }
+
+  /**
+   * Returns the position of a changed step
+   *
+   * @param change Index of the change, less than {@link #getChangedStepCount()}
+   * @return The position of the step
+   */
+  public int getChangedStepPosition(int change) {
+    return changedPositions[change];
+  }
+
+  /**
+   * Returns the state a changed step had when {@link #clearChanges()} was last called
+   *
+   * @param change Index of the change, less than {@link #getChangedStepCount()}
+   * @return The previous state of the step
+   */
+  @NonNull
+  public Step.State getPreviousState(int change) {
+    return STATES[previousStates[change]];
+  }
+
+  /**
+   * Returns the name a changed step had when {@link #clearChanges()} was last called
+   *
+   * @param change Index of the change, less than {@link #getChangedStepCount()}
+   * @return The previous name of the step
+   */
+  @NonNull
+  public String getPreviousName(int change) {
+    return names[previousNameIds[change]];
+  }
+
+  /**
+   * Returns the progress a changed step had when {@link #clearChanges()} was last called
+   *
+   * @param change Index of the change, less than {@link #getChangedStepCount()}
+   * @return The previous progress of the step, from 0 to 1
+   */
+  public float getPreviousProgress(int change) {
+    return previousProgress[change];
+  }
+
+  /**
+   * Returns the steps as they were when {@link #clearChanges()} was last called. The copy made
+   * before steps were first inserted or removed is returned as is; otherwise the buffer is copied
+   * unless it did not change.
+   *
+   * @return The previous steps, which must not be modified
+   */
+  @NonNull
+  public StepStateBuffer getPreviousSteps() {
+    if (isStructureChanged) {
+      return previousSteps;
+    }
+    return changeCount == 0 ? this : copyPreviousSteps();
+  }
+
+  /**
+   * Forgets the changes made so far, e.g. because a StepView applied them
+   */
+  public void clearChanges() {
+    isStructureChanged = false;
+    previousSteps = null;
+    changedSteps.clear();
+    changeCount = 0;
+  }
+
+  /**
+   * Forgets the change of the step at the given position, e.g. because a StepView applied it.
+   * Nothing is forgotten once steps were inserted or removed.
+   *
+   * @param index The position of the step
+   */
+  public void clearChange(int index) {
+    if (isStructureChanged || !changedSteps.get(index)) {
+      return;
+    }
+    changedSteps.clear(index);
+    // Changes applied by a StepView are usually the last ones
+    int change = changeCount - 1;
+    while (changedPositions[change] != index) {
+      change--;
+    }
+    final int last = changeCount - 1;
+    changedPositions[change] = changedPositions[last];
+    previousStates[change] = previousStates[last];
+    previousNameIds[change] = previousNameIds[last];
+    previousProgress[change] = previousProgress[last];
+    changeCount = last;
+  }
+
+  /**
+   * Records the values of the step at the given position before they change
+   */
+  private void recordChange(int index) {
+    version++;
+    if (isStructureChanged || changedSteps.get(index)) {
+      return;
+    }
+    changedSteps.set(index);
+    if (changeCount == changedPositions.length) {
+      final int capacity = Math.max(4, changeCount * 2);
+      changedPositions = Arrays.copyOf(changedPositions, capacity);
+      previousStates = Arrays.copyOf(previousStates, capacity);
+      previousNameIds = Arrays.copyOf(previousNameIds, capacity);
+      previousProgress = Arrays.copyOf(previousProgress, capacity);
+    }
+    changedPositions[changeCount] = index;
+    previousStates[changeCount] = states[index];
+    previousNameIds[changeCount] = nameIds[index];
+    previousProgress[changeCount] = progress == null ? 0 : progress[index];
+    changeCount++;
+  }
+
+  /**
+   * Records the steps before steps are inserted or removed. Positions no longer identify steps,
+   * so the steps are copied, once until the changes are cleared.
+   */
+  private void recordStructureChange() {
+    version++;
+    if (isStructureChanged) {
+      return;
+    }
+    previousSteps = copyPreviousSteps();
+    isStructureChanged = true;
+    changedSteps.clear();
+    changeCount = 0;
+  }
+
+  /**
+   * Returns a copy of the buffer with the changed steps reverted to their previous values
+   */
+  private StepStateBuffer copyPreviousSteps() {
+    StepStateBuffer copy = copyOf(this);
+    for (int change = 0; change < changeCount; change++) {
+      final int index = changedPositions[change];
+      copy.states[index] = previousStates[change];
+      copy.nameIds[index] = previousNameIds[change];
+      if (copy.progress != null) {
+        // The progress array is only dropped by clear(), which is recorded as a structure change
+        copy.progress[index] = previousProgress[change];
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Returns the id of the given name in the table of names, adding it if needed
+   */
+  private int getNameId(String name) {
+    Integer nameId = nameIdsByName.get(name);
+    if (nameId != null) {
+      return nameId;
+    }
+    final int newNameId = nameIdsByName.size();
+    if (newNameId == names.length) {
+      names = Arrays.copyOf(names, newNameId * 2);
+    }
+    names[newNameId] = name;
+    nameIdsByName.put(name, newNameId);
+    return newNameId;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(String.format("Invalid step position %d. The list of steps has %d items", index, size));
+    }
+  }
+}
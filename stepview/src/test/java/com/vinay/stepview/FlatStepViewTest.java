@@ -0,0 +1,59 @@
+package com.vinay.stepview;
+
+import android.graphics.Canvas;
+import android.view.View;
+
+import com.vinay.stepview.models.Step;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the changes made to the indicator of a flat StepView, which is never attached,
+ * reach the StepView that draws it
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class FlatStepViewTest {
+
+  @Test
+  public void singleStepChange_invalidatesHost() {
+    StepView stepView = createDrawnStepView(new FlatHorizontalStepView(RuntimeEnvironment.application));
+
+    stepView.setStepState(Step.State.COMPLETED, 5);
+
+    assertTrue(stepView.isDirty());
+  }
+
+  @Test
+  public void singleStepRegionInvalidation_reachesHost() {
+    StepView stepView = createDrawnStepView(new FlatVerticalStepView(RuntimeEnvironment.application));
+
+    stepView.mStepViewIndicator.mDirtyRect.set(0, 0, 10, 10);
+    stepView.mStepViewIndicator.invalidateRegion(stepView.mStepViewIndicator.mDirtyRect);
+
+    assertTrue(stepView.isDirty());
+  }
+
+  private static StepView createDrawnStepView(StepView stepView) {
+    List<Step> steps = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      steps.add(new Step("Step " + i, i < 5 ? Step.State.COMPLETED : i == 5 ? Step.State.CURRENT : Step.State.NOT_COMPLETED));
+    }
+    stepView.setSteps(steps);
+    stepView.measure(View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+    stepView.layout(0, 0, stepView.getMeasuredWidth(), stepView.getMeasuredHeight());
+    stepView.draw(new Canvas());
+    assertFalse(stepView.isDirty());
+    return stepView;
+  }
+}
@@ -0,0 +1,142 @@
+package com.vinay.stepview;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.PixelFormat;
+import android.graphics.drawable.Drawable;
+import android.view.ContextThemeWrapper;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class StepIconCacheTest {
+
+  private static final int ICON_SIZE = 48;
+
+  @Test
+  public void iconResource_isSharedWithinTheme() {
+    Context context = RuntimeEnvironment.application;
+
+    assertSame(StepIconCache.getIcon(context, R.drawable.ic_completed, ICON_SIZE),
+        StepIconCache.getIcon(context, R.drawable.ic_completed, ICON_SIZE));
+  }
+
+  @Test
+  public void iconResource_isNotSharedAcrossThemes() {
+    Context light = new ContextThemeWrapper(RuntimeEnvironment.application, android.R.style.Theme_Material_Light);
+    Context dark = new ContextThemeWrapper(RuntimeEnvironment.application, android.R.style.Theme_Material);
+
+    assertNotSame(StepIconCache.getIcon(light, R.drawable.ic_completed, ICON_SIZE),
+        StepIconCache.getIcon(dark, R.drawable.ic_completed, ICON_SIZE));
+  }
+
+  @Test
+  public void iconSetByApplication_isNotShared() {
+    CountingDrawable icon = new CountingDrawable(false);
+    StepViewHarness first = createHarness(icon);
+    StepViewHarness second = createHarness(icon);
+
+    assertNotSame(first.stepView.mStepViewIndicator.mCompletedIconBitmap,
+        second.stepView.mStepViewIndicator.mCompletedIconBitmap);
+  }
+
+  @Test
+  public void iconSetByApplication_isRasterizedOnce() {
+    CountingDrawable icon = new CountingDrawable(false);
+    StepViewHarness harness = createHarness(icon);
+
+    harness.stepView.invalidate();
+    harness.frame();
+
+    assertEquals(1, icon.drawCount);
+  }
+
+  @Test
+  public void statefulIcon_isRasterizedOnEveryDraw() {
+    CountingDrawable icon = new CountingDrawable(true);
+    StepViewHarness harness = createHarness(icon);
+
+    harness.stepView.invalidate();
+    harness.frame();
+
+    assertEquals(2, icon.drawCount);
+  }
+
+  @Test
+  public void changedIcon_isRasterizedAgain() {
+    CountingDrawable icon = new CountingDrawable(false);
+    StepViewHarness harness = createHarness(icon);
+
+    icon.invalidateSelf();
+    harness.frame();
+
+    assertEquals(2, icon.drawCount);
+  }
+
+  @Test
+  public void defaultIcon_isInflatedOnceAndDrawn() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    harness.stepView.setSteps(StepViewHarness.createSteps(5));
+    harness.frame();
+
+    Drawable icon = harness.stepView.getCompletedStepIcon();
+    harness.stepView.mStepViewIndicator.invalidate();
+    harness.frame();
+    Bitmap bitmap = harness.stepView.mStepViewIndicator.mCompletedIconBitmap;
+    assertNotNull(bitmap);
+    icon.invalidateSelf();
+    harness.frame();
+
+    assertSame(icon, harness.stepView.getCompletedStepIcon());
+    assertNotSame(bitmap, harness.stepView.mStepViewIndicator.mCompletedIconBitmap);
+  }
+
+  private static StepViewHarness createHarness(Drawable completedStepIcon) {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    harness.stepView.setCompletedStepIcon(completedStepIcon);
+    harness.stepView.setSteps(StepViewHarness.createSteps(5));
+    harness.frame();
+    return harness;
+  }
+
+  private static final class CountingDrawable extends Drawable {
+    private final boolean mIsStateful;
+    int drawCount;
+
+    CountingDrawable(boolean isStateful) {
+      mIsStateful = isStateful;
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+      drawCount++;
+    }
+
+    @Override
+    public boolean isStateful() {
+      return mIsStateful;
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter colorFilter) {
+    }
+
+    @Override
+    public int getOpacity() {
+      return PixelFormat.TRANSLUCENT;
+    }
+  }
+}
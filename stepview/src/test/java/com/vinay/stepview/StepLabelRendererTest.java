@@ -0,0 +1,55 @@
+package com.vinay.stepview;
+
+import android.graphics.Rect;
+import android.text.Layout;
+
+import com.vinay.stepview.models.Step;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class StepLabelRendererTest {
+
+  @Test
+  public void stepChangedWhileGeometryIsStale_discardsItsLabel() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    harness.stepView.setCanvasLabelsEnabled(true);
+    List<Step> steps = StepViewHarness.createSteps(5);
+    harness.stepView.setSteps(steps);
+    harness.frame();
+    StepLabelRenderer labelRenderer = harness.stepView.mStepViewIndicator.getLabelRenderer();
+    Layout notCompletedLayout = labelRenderer.getLayout(steps, 4);
+
+    harness.stepView.mStepViewIndicator.mLayoutEngine.invalidate();
+    harness.stepView.setStepState(Step.State.COMPLETED, 4);
+    harness.frame();
+
+    assertNotSame(notCompletedLayout, labelRenderer.getLayout(steps, 4));
+  }
+
+  @Test
+  public void stepChange_redrawsItsRegionAndLabelOnly() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    harness.stepView.setCanvasLabelsEnabled(true);
+    List<Step> steps = StepViewHarness.createSteps(10);
+    harness.stepView.setSteps(steps);
+    harness.frame();
+    StepViewIndicator indicator = harness.stepView.mStepViewIndicator;
+
+    harness.stepView.setStepState(Step.State.COMPLETED, 9);
+
+    Layout labelLayout = indicator.getLabelRenderer().getLayout(steps, 9);
+    Rect dirtyRect = indicator.mDirtyRect;
+    assertTrue(dirtyRect.width() < indicator.getWidth());
+    assertTrue(dirtyRect.left <= indicator.getLabelLeft(9, labelLayout));
+    assertTrue(dirtyRect.bottom >= indicator.getLabelTop(9, labelLayout) + labelLayout.getHeight());
+  }
+}
@@ -0,0 +1,107 @@
+package com.vinay.stepview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StepLayoutEngineTest {
+
+  private static final float DELTA = 0.001f;
+
+  @Test
+  public void centeredLayout_centersStepsAlongMainAxis() {
+    StepLayoutEngine engine = new StepLayoutEngine();
+    assertTrue(engine.layout(3, 200, 10, 30, false, true));
+
+    // Content = 3 * 20 + 2 * 30 = 120, so the steps start at (200 - 120) / 2 = 40
+    assertEquals(120, engine.getContentLength(), DELTA);
+    assertEquals(50, engine.getCenter(0), DELTA);
+    assertEquals(100, engine.getCenter(1), DELTA);
+    assertEquals(150, engine.getCenter(2), DELTA);
+
+    assertEquals(2, engine.getLineCount());
+    assertEquals(60, engine.getLineStart(0), DELTA);
+    assertEquals(90, engine.getLineEnd(0), DELTA);
+    assertEquals(110, engine.getLineStart(1), DELTA);
+    assertEquals(140, engine.getLineEnd(1), DELTA);
+  }
+
+  @Test
+  public void reverseLayout_startsFromTheEndOfMainAxis() {
+    StepLayoutEngine engine = new StepLayoutEngine();
+    engine.layout(3, 120, 10, 30, true, false);
+
+    assertEquals(110, engine.getCenter(0), DELTA);
+    assertEquals(60, engine.getCenter(1), DELTA);
+    assertEquals(10, engine.getCenter(2), DELTA);
+
+    // Lines are always reported from the lower to the higher coordinate
+    assertEquals(70, engine.getLineStart(0), DELTA);
+    assertEquals(100, engine.getLineEnd(0), DELTA);
+    assertEquals(20, engine.getLineStart(1), DELTA);
+    assertEquals(50, engine.getLineEnd(1), DELTA);
+  }
+
+  @Test
+  public void layout_isOnlyRecomputedWhenInputsChange() {
+    StepLayoutEngine engine = new StepLayoutEngine();
+    assertTrue(engine.layout(5, 300, 10, 30, false, true));
+    int version = engine.getVersion();
+    float[] centers = engine.getCenters();
+
+    assertFalse(engine.layout(5, 300, 10, 30, false, true));
+    assertEquals(version, engine.getVersion());
+
+    assertTrue(engine.layout(4, 300, 10, 30, false, true));
+    assertNotEquals(version, engine.getVersion());
+    // Shrinking the number of steps reuses the existing buffers
+    assertSame(centers, engine.getCenters());
+
+    engine.invalidate();
+    assertTrue(engine.layout(4, 300, 10, 30, false, true));
+  }
+
+  @Test
+  public void emptyLayout_hasNoStepsOrLines() {
+    StepLayoutEngine engine = new StepLayoutEngine();
+    engine.layout(0, 300, 10, 30, false, true);
+
+    assertEquals(0, engine.getStepCount());
+    assertEquals(0, engine.getLineCount());
+    assertEquals(0, engine.getContentLength(), DELTA);
+  }
+
+  @Test
+  public void labelStart_centersLabelOnStep() {
+    StepLayoutEngine engine = new StepLayoutEngine();
+    engine.layout(2, 100, 10, 30, false, false);
+
+    assertEquals(-10, engine.getLabelStart(0, 40), DELTA);
+    assertEquals(50, engine.getLabelStart(1, 20), DELTA);
+  }
+
+  @Test
+  public void stepAt_returnsClosestStep() {
+    StepLayoutEngine engine = new StepLayoutEngine();
+    engine.layout(3, 200, 10, 30, false, true);
+
+    assertEquals(0, engine.getStepAt(-100));
+    assertEquals(0, engine.getStepAt(74));
+    assertEquals(1, engine.getStepAt(76));
+    assertEquals(2, engine.getStepAt(150));
+    assertEquals(2, engine.getStepAt(1000));
+  }
+
+  @Test
+  public void stepAt_followsReverseLayout() {
+    StepLayoutEngine engine = new StepLayoutEngine();
+    engine.layout(3, 120, 10, 30, true, false);
+
+    assertEquals(2, engine.getStepAt(0));
+    assertEquals(1, engine.getStepAt(60));
+    assertEquals(0, engine.getStepAt(120));
+
+    engine.layout(0, 120, 10, 30, true, false);
+    assertEquals(-1, engine.getStepAt(60));
+  }
+}
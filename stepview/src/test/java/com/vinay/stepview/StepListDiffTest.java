@@ -0,0 +1,135 @@
+package com.vinay.stepview;
+
+import com.vinay.stepview.models.Step;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class StepListDiffTest {
+
+  @Test
+  public void appendedStep_isInserted() {
+    int[] newToOld = match(new String[]{"a", "b", "c"}, "a", "b", "c", "d");
+
+    assertArrayEquals(new int[]{0, 1, 2, -1}, newToOld);
+  }
+
+  @Test
+  public void removedStep_shiftsFollowingSteps() {
+    int[] newToOld = match(new String[]{"a", "b", "c", "d"}, "a", "c", "d");
+
+    assertArrayEquals(new int[]{0, 2, 3}, newToOld);
+  }
+
+  @Test
+  public void insertedAndRemovedSteps_matchTheCommonSteps() {
+    int[] newToOld = match(new String[]{"a", "b", "c", "d", "e"}, "x", "a", "c", "y", "e");
+
+    assertArrayEquals(new int[]{-1, 0, 2, -1, 4}, newToOld);
+  }
+
+  @Test
+  public void movedStep_isMatchedOnce() {
+    int[] newToOld = match(new String[]{"a", "b", "c"}, "c", "a", "b");
+
+    assertArrayEquals(new int[]{-1, 0, 1}, newToOld);
+  }
+
+  @Test
+  public void emptyLists_matchNothing() {
+    assertArrayEquals(new int[]{-1, -1}, match(new String[0], "a", "b"));
+    assertArrayEquals(new int[0], match(new String[]{"a", "b"}));
+  }
+
+  @Test
+  public void largeListWithScatteredEdits_matchesAllCommonSteps() {
+    String[] oldNames = new String[5000];
+    String[] newNames = new String[5000];
+    for (int i = 0; i < oldNames.length; i++) {
+      oldNames[i] = "Step " + i;
+      newNames[i] = i % 100 == 50 ? "Renamed " + i : oldNames[i];
+    }
+
+    int[] newToOld = match(oldNames, newNames);
+
+    for (int i = 0; i < newToOld.length; i++) {
+      assertEquals(i % 100 == 50 ? -1 : i, newToOld[i]);
+    }
+  }
+
+  @Test
+  public void allStepsRenamed_matchNothing() {
+    String[] oldNames = new String[5000];
+    String[] newNames = new String[5000];
+    for (int i = 0; i < oldNames.length; i++) {
+      oldNames[i] = "Step " + i;
+      newNames[i] = "Renamed " + i;
+    }
+
+    int[] newToOld = match(oldNames, newNames);
+
+    for (int oldPosition : newToOld) {
+      assertEquals(-1, oldPosition);
+    }
+  }
+
+  @Test
+  public void randomEdits_matchLongestCommonSubsequence() {
+    Random random = new Random(42);
+    for (int run = 0; run < 500; run++) {
+      String[] oldNames = randomNames(random);
+      String[] newNames = randomNames(random);
+
+      int[] newToOld = match(oldNames, newNames);
+
+      int matchCount = 0;
+      int previousOldPosition = -1;
+      for (int i = 0; i < newToOld.length; i++) {
+        if (newToOld[i] != -1) {
+          assertTrue(newToOld[i] > previousOldPosition);
+          assertEquals(oldNames[newToOld[i]], newNames[i]);
+          previousOldPosition = newToOld[i];
+          matchCount++;
+        }
+      }
+      assertEquals(longestCommonSubsequence(oldNames, newNames), matchCount);
+    }
+  }
+
+  private static String[] randomNames(Random random) {
+    String[] names = new String[random.nextInt(20)];
+    for (int i = 0; i < names.length; i++) {
+      names[i] = String.valueOf((char) ('a' + random.nextInt(4)));
+    }
+    return names;
+  }
+
+  private static int longestCommonSubsequence(String[] a, String[] b) {
+    int[][] lengths = new int[a.length + 1][b.length + 1];
+    for (int i = 1; i <= a.length; i++) {
+      for (int j = 1; j <= b.length; j++) {
+        lengths[i][j] = a[i - 1].equals(b[j - 1])
+            ? lengths[i - 1][j - 1] + 1
+            : Math.max(lengths[i - 1][j], lengths[i][j - 1]);
+      }
+    }
+    return lengths[a.length][b.length];
+  }
+
+  private static int[] match(String[] oldNames, String... newNames) {
+    return StepListDiff.matchSteps(createSteps(oldNames), createSteps(newNames));
+  }
+
+  private static List<Step> createSteps(String[] names) {
+    List<Step> steps = new ArrayList<>();
+    for (String name : names) {
+      steps.add(new Step(name));
+    }
+    return steps;
+  }
+}
@@ -0,0 +1,217 @@
+package com.vinay.stepview;
+
+import com.vinay.stepview.models.ImmutableStep;
+import com.vinay.stepview.models.Step;
+import com.vinay.stepview.models.StepList;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class StepListTest {
+
+  @Test
+  public void immutableStep_unchangedCopyIsTheSameStep() {
+    ImmutableStep step = ImmutableStep.of("Step 0", Step.State.CURRENT);
+
+    assertSame(step, step.withState(Step.State.CURRENT));
+    assertSame(step, step.withName(new String("Step 0")));
+    assertSame(step, step.withProgress(-1));
+  }
+
+  @Test
+  public void immutableStep_equalsCopyOfMutableStep() {
+    ImmutableStep step = ImmutableStep.copyOf(new Step(new String("Step 0"), Step.State.COMPLETED));
+
+    assertEquals(ImmutableStep.of("Step 0", Step.State.COMPLETED), step);
+    assertEquals(ImmutableStep.of("Step 0", Step.State.COMPLETED).hashCode(), step.hashCode());
+    assertNotEquals(ImmutableStep.of("Step 0", Step.State.CURRENT), step);
+  }
+
+  @Test
+  public void immutableStep_isNotChangedByItsStep() {
+    ImmutableStep immutableStep = ImmutableStep.of("Step 0").withProgress(0.5f);
+
+    Step step = immutableStep.toStep();
+    step.setState(Step.State.COMPLETED);
+
+    assertEquals(Step.State.NOT_COMPLETED, immutableStep.getState());
+    assertEquals(immutableStep.withState(Step.State.COMPLETED), ImmutableStep.copyOf(step));
+  }
+
+  @Test
+  public void stepList_copiesShareUnchangedSteps() {
+    StepList steps = StepList.of(StepViewHarness.createSteps(5));
+
+    StepList copy = steps.withState(4, Step.State.COMPLETED);
+
+    assertNotSame(steps, copy);
+    assertSame(steps.getImmutableStep(0), copy.getImmutableStep(0));
+    assertEquals(Step.State.NOT_COMPLETED, steps.get(4).getState());
+    assertEquals(Step.State.COMPLETED, copy.get(4).getState());
+    assertSame(copy, copy.withState(4, Step.State.COMPLETED));
+  }
+
+  @Test
+  public void stepList_withSteps_copiesOnlyStepsThatDiffer() {
+    StepList steps = StepList.of(StepViewHarness.createSteps(5));
+    List<Step> newSteps = StepViewHarness.createSteps(5);
+
+    assertSame(steps, steps.withSteps(newSteps));
+
+    newSteps.get(4).setState(Step.State.COMPLETED);
+    StepList copy = steps.withSteps(newSteps);
+
+    assertEquals(newSteps, copy);
+    assertSame(steps.getImmutableStep(3), copy.getImmutableStep(3));
+    assertNotSame(steps.getImmutableStep(4), copy.getImmutableStep(4));
+    assertEquals(newSteps.subList(0, 3), steps.withSteps(newSteps.subList(0, 3)));
+  }
+
+  @Test
+  public void setEqualMutableList_keepsStepList() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    harness.stepView.setSteps(StepViewHarness.createSteps(10));
+    harness.frame();
+    List<Step> steps = harness.stepView.getSteps();
+
+    harness.stepView.setSteps(StepViewHarness.createSteps(10));
+
+    assertSame(steps, harness.stepView.getSteps());
+  }
+
+  @Test
+  public void stepList_equalsEqualLists() {
+    List<Step> steps = StepViewHarness.createSteps(5);
+
+    assertEquals(StepList.of(steps), StepList.of(steps));
+    assertEquals(StepList.of(steps).hashCode(), StepList.of(steps).hashCode());
+    assertNotEquals(StepList.of(steps), StepList.of(steps).withRemoved(4));
+    assertEquals(StepList.of(ImmutableStep.copyOf(steps.get(0))), StepList.of(steps.get(0)));
+  }
+
+  @Test
+  public void stepList_equalsOtherListsOfEqualSteps() {
+    StepList steps = StepList.of(StepViewHarness.createSteps(5));
+    List<Step> copy = new ArrayList<>(steps);
+
+    assertEquals(steps, copy);
+    assertEquals(copy, steps);
+    assertEquals(copy.hashCode(), steps.hashCode());
+    assertNotEquals(steps, copy.subList(0, 4));
+    assertEquals(new Step("Step 3"), new Step("Step 3"));
+    assertEquals(ImmutableStep.of("Step 3").hashCode(), new Step("Step 3").hashCode());
+  }
+
+  @Test
+  public void stepList_findsItsSteps() {
+    StepList steps = StepList.of(StepViewHarness.createSteps(5));
+
+    assertTrue(steps.contains(steps.get(3)));
+    assertEquals(3, steps.indexOf(steps.get(3)));
+    assertEquals(-1, steps.indexOf(new Step("Step 3", Step.State.CURRENT)));
+  }
+
+  @Test
+  public void getStep_returnsSnapshot() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    harness.stepView.setSteps(StepViewHarness.createSteps(10));
+    harness.frame();
+
+    Step step = harness.stepView.getStep(9);
+    step.setState(Step.State.COMPLETED);
+
+    assertEquals(Step.State.NOT_COMPLETED, harness.stepView.getStep(9).getState());
+    harness.stepView.setStep(step, 9);
+    assertEquals(step, harness.stepView.getStep(9));
+    try {
+      harness.stepView.getSteps().add(new Step("Step 10"));
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
+
+  @Test
+  public void setEqualStepList_invalidatesNothing() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    List<Step> steps = StepViewHarness.createSteps(10);
+    harness.stepView.setSteps(StepList.of(steps));
+    harness.frame();
+    harness.resetCounts();
+
+    StepList equalSteps = StepList.of(steps);
+    harness.stepView.setSteps(equalSteps);
+    harness.frame();
+
+    assertSame(equalSteps, harness.stepView.getSteps());
+    assertSame(equalSteps, harness.stepView.mStepViewIndicator.mStepList);
+    assertEquals(0, harness.getRequestLayoutCount());
+  }
+
+  @Test
+  public void setMutableList_holdsCopyOfSteps() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    List<Step> steps = StepViewHarness.createSteps(10);
+    harness.stepView.setSteps(steps);
+    harness.frame();
+    harness.resetCounts();
+
+    steps.get(9).setState(Step.State.COMPLETED);
+    steps.remove(0);
+    harness.stepView.invalidate();
+    harness.frame();
+
+    assertTrue(harness.stepView.getSteps() instanceof StepList);
+    assertEquals(10, harness.stepView.getSteps().size());
+    assertEquals(Step.State.NOT_COMPLETED, harness.stepView.getStep(9).getState());
+    assertEquals(0, harness.getRequestLayoutCount());
+  }
+
+  @Test
+  public void setStepState_replacesStepListWithCopy() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    StepList steps = StepList.of(StepViewHarness.createSteps(10));
+    harness.stepView.setSteps(steps);
+    harness.frame();
+
+    harness.stepView.setStepState(Step.State.COMPLETED, 9);
+    harness.frame();
+
+    assertEquals(Step.State.NOT_COMPLETED, steps.get(9).getState());
+    assertTrue(harness.stepView.getSteps() instanceof StepList);
+    assertEquals(Step.State.COMPLETED, harness.stepView.getSteps().get(9).getState());
+    assertSame(harness.stepView.getSteps(), harness.stepView.mStepViewIndicator.mStepList);
+  }
+
+  @Test
+  public void editor_addsAndRemovesStepsOfStepList() {
+    StepViewHarness harness = StepViewHarness.vertical();
+    StepList steps = StepList.of(StepViewHarness.createSteps(3));
+    harness.stepView.setSteps(steps);
+    harness.frame();
+
+    harness.stepView.edit()
+        .remove(0)
+        .add(new Step("Step 3"))
+        .setState(0, Step.State.COMPLETED)
+        .commit();
+    harness.frame();
+
+    List<String> names = new ArrayList<>();
+    for (Step step : harness.stepView.getSteps()) {
+      names.add(step.getName());
+    }
+    assertEquals(Arrays.asList("Step 1", "Step 2", "Step 3"), names);
+    assertEquals(Step.State.COMPLETED, harness.stepView.getSteps().get(0).getState());
+    assertEquals(3, steps.size());
+  }
+}
@@ -0,0 +1,212 @@
+package com.vinay.stepview;
+
+import com.vinay.stepview.models.ImmutableStep;
+import com.vinay.stepview.models.Step;
+import com.vinay.stepview.models.StepList;
+import com.vinay.stepview.models.StepStateBuffer;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class StepStateBufferTest {
+
+  @Test
+  public void buffer_holdsStepsOfList() {
+    List<Step> steps = StepViewHarness.createSteps(10);
+    steps.get(7).setProgress(0.5f);
+
+    StepStateBuffer buffer = StepStateBuffer.of(steps);
+
+    assertEquals(StepList.of(steps), StepList.of(buffer));
+    assertEquals(Step.State.CURRENT, buffer.getState(5));
+    assertEquals("Step 7", buffer.getName(7));
+    assertEquals(0.5f, buffer.getProgress(7), 0);
+    assertEquals(0, buffer.getProgress(8), 0);
+  }
+
+  @Test
+  public void buffer_sharesRepeatedNames() {
+    StepStateBuffer buffer = new StepStateBuffer(0);
+    for (int i = 0; i < 1000; i++) {
+      buffer.add(i % 2 == 0 ? "Login" : "Logout", Step.State.COMPLETED);
+    }
+    buffer.setName(0, "Logout");
+
+    assertEquals(1000, buffer.size());
+    assertEquals(2, buffer.getNameCount());
+    assertSame(buffer.getName(0), buffer.getName(1));
+  }
+
+  @Test
+  public void buffer_insertsAndRemovesSteps() {
+    StepStateBuffer buffer = StepStateBuffer.of(StepViewHarness.createSteps(3));
+    buffer.setProgress(2, 0.25f);
+
+    buffer.add(1, new Step("Inserted", Step.State.CURRENT));
+    Step removed = buffer.remove(0);
+
+    assertEquals(ImmutableStep.of("Step 0", Step.State.COMPLETED), ImmutableStep.copyOf(removed));
+    assertEquals(3, buffer.size());
+    assertEquals("Inserted", buffer.getName(0));
+    assertEquals(Step.State.CURRENT, buffer.getState(0));
+    assertEquals(0.25f, buffer.getProgress(2), 0);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void buffer_rejectsPositionPastEnd() {
+    StepStateBuffer buffer = StepStateBuffer.of(StepViewHarness.createSteps(3));
+    buffer.add(5, new Step("Step 5"));
+  }
+
+  @Test
+  public void setStepState_changesBufferInPlace() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    StepStateBuffer buffer = StepStateBuffer.of(StepViewHarness.createSteps(10));
+    harness.stepView.setSteps(buffer);
+    harness.frame();
+    harness.resetCounts();
+
+    harness.stepView.setStepState(Step.State.COMPLETED, 9);
+    harness.stepView.setStepProgress(0.5f, 8);
+    harness.frame();
+
+    assertSame(buffer, harness.stepView.getSteps());
+    assertEquals(Step.State.COMPLETED, buffer.getState(9));
+    assertEquals(0.5f, buffer.getProgress(8), 0);
+    assertEquals(0, harness.getRequestLayoutCount());
+  }
+
+  @Test
+  public void setSteps_recordsBufferItself() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    StepStateBuffer buffer = StepStateBuffer.of(StepViewHarness.createSteps(10));
+    buffer.setState(9, Step.State.COMPLETED);
+
+    harness.stepView.setSteps(buffer);
+
+    assertSame(buffer, harness.stepView.mAppliedSteps);
+    assertEquals(buffer.getVersion(), harness.stepView.mAppliedVersion);
+    assertEquals(0, buffer.getChangedStepCount());
+  }
+
+  @Test
+  public void setSteps_recordsStepListItself() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    harness.stepView.setSteps(StepViewHarness.createSteps(10));
+
+    harness.stepView.setStepState(Step.State.COMPLETED, 9);
+
+    assertSame(harness.stepView.getSteps(), harness.stepView.mAppliedSteps);
+  }
+
+  @Test
+  public void buffer_recordsChangedStepsWithPreviousValues() {
+    StepStateBuffer buffer = StepStateBuffer.of(StepViewHarness.createSteps(10));
+    buffer.clearChanges();
+    final int version = buffer.getVersion();
+
+    buffer.setState(9, Step.State.NOT_COMPLETED);
+    assertEquals(version, buffer.getVersion());
+
+    buffer.setState(9, Step.State.CURRENT);
+    buffer.setState(9, Step.State.COMPLETED);
+    buffer.setProgress(3, 0.5f);
+
+    assertEquals(2, buffer.getChangedStepCount());
+    assertEquals(9, buffer.getChangedStepPosition(0));
+    assertEquals(Step.State.NOT_COMPLETED, buffer.getPreviousState(0));
+    assertEquals(0, buffer.getPreviousProgress(1), 0);
+    assertEquals(Step.State.NOT_COMPLETED, buffer.getPreviousSteps().getState(9));
+
+    buffer.clearChange(9);
+
+    assertEquals(1, buffer.getChangedStepCount());
+    assertEquals(3, buffer.getChangedStepPosition(0));
+  }
+
+  @Test
+  public void buffer_copiesPreviousStepsOnceStructureChanges() {
+    List<Step> steps = StepViewHarness.createSteps(10);
+    StepStateBuffer buffer = StepStateBuffer.of(steps);
+    buffer.clearChanges();
+
+    buffer.setState(9, Step.State.COMPLETED);
+    buffer.remove(0);
+    buffer.add("Step 10", Step.State.CURRENT);
+
+    assertTrue(buffer.isStructureChanged());
+    assertEquals(0, buffer.getChangedStepCount());
+    assertEquals(StepList.of(steps), StepList.of(buffer.getPreviousSteps()));
+
+    buffer.clearChanges();
+
+    assertFalse(buffer.isStructureChanged());
+    assertSame(buffer, buffer.getPreviousSteps());
+  }
+
+  @Test
+  public void setBufferChangedInPlace_appliesOnlyRecordedChanges() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    harness.stepView.setStateTransitionDuration(200);
+    StepStateBuffer buffer = StepStateBuffer.of(StepViewHarness.createSteps(10));
+    harness.stepView.setSteps(buffer);
+    harness.frame();
+    harness.resetCounts();
+
+    buffer.setState(9, Step.State.COMPLETED);
+    harness.stepView.setSteps(buffer);
+    harness.frame();
+
+    StepTransitionAnimator transitions = harness.stepView.mStepViewIndicator.mTransitions;
+    assertSame(buffer, harness.stepView.mAppliedSteps);
+    assertEquals(0, buffer.getChangedStepCount());
+    assertEquals(1, transitions.getCount());
+    assertEquals(9, transitions.getStepPosition(0));
+    assertEquals(Step.State.NOT_COMPLETED, transitions.getFromState(0));
+    assertEquals(0, harness.getRequestLayoutCount());
+  }
+
+  @Test
+  public void setStepStateOfChangedBuffer_keepsOtherChanges() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    StepStateBuffer buffer = StepStateBuffer.of(StepViewHarness.createSteps(10));
+    harness.stepView.setSteps(buffer);
+    harness.frame();
+
+    buffer.setState(3, Step.State.CURRENT);
+    harness.stepView.setStepState(Step.State.COMPLETED, 9);
+
+    assertEquals(1, buffer.getChangedStepCount());
+    assertEquals(3, buffer.getChangedStepPosition(0));
+    assertNotEquals(buffer.getVersion(), harness.stepView.mAppliedVersion);
+
+    harness.stepView.setSteps(buffer);
+
+    assertEquals(0, buffer.getChangedStepCount());
+    assertEquals(buffer.getVersion(), harness.stepView.mAppliedVersion);
+  }
+
+  @Test
+  public void setSteps_appliesChangesMadeToBuffer() {
+    StepViewHarness harness = StepViewHarness.flatVertical();
+    StepStateBuffer buffer = StepStateBuffer.of(StepViewHarness.createSteps(10));
+    harness.stepView.setSteps(buffer);
+    harness.frame();
+
+    buffer.setState(9, Step.State.COMPLETED);
+    buffer.add("Step 10", Step.State.CURRENT);
+    harness.stepView.setSteps(buffer);
+    harness.frame();
+
+    assertEquals(11, harness.stepView.mStepViewIndicator.getNumOfSteps());
+    assertEquals(Step.State.COMPLETED, harness.stepView.getStep(9).getState());
+  }
+}
@@ -0,0 +1,149 @@
+package com.vinay.stepview;
+
+import android.content.res.ColorStateList;
+import android.widget.TextView;
+
+import com.vinay.stepview.models.Step;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the transitions between the states of a step, see {@link StepView#setStateTransitionDuration(long)}
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class StepTransitionTest {
+
+  private static final int STEP_COUNT = 20;
+  private static final long DURATION_MILLIS = 200;
+  private static final long FRAME_MILLIS = 16;
+
+  @Test
+  public void transitions_areDisabledByDefault() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    harness.stepView.setSteps(StepViewHarness.createSteps(STEP_COUNT));
+    harness.frame();
+
+    harness.stepView.setStepState(Step.State.COMPLETED, STEP_COUNT - 1);
+
+    assertEquals(0, harness.stepView.getStateTransitionDuration());
+    assertNull(harness.stepView.mStepViewIndicator.mTransitions);
+  }
+
+  @Test
+  public void transitionFrames_costNoLayout() {
+    for (StepViewHarness harness : StepViewHarness.all()) {
+      harness.stepView.setStateTransitionDuration(DURATION_MILLIS);
+      harness.stepView.setSteps(StepViewHarness.createSteps(STEP_COUNT));
+      harness.frame();
+      harness.frame();
+
+      harness.resetCounts();
+      harness.stepView.setStepState(Step.State.COMPLETED, STEP_COUNT - 1);
+      for (long elapsed = 0; elapsed < DURATION_MILLIS; elapsed += FRAME_MILLIS) {
+        ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+        harness.frame();
+
+        assertTrue(harness.toString(), harness.didDraw());
+      }
+
+      assertEquals(harness.toString(), 0, harness.getRequestLayoutCount());
+      assertEquals(harness.toString(), 0, harness.getLayoutPassCount());
+      assertEquals(harness.toString(), 0, harness.getLayoutRequestsDuringDraw());
+    }
+  }
+
+  @Test
+  public void transition_endsInNewState() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    harness.stepView.setStateTransitionDuration(DURATION_MILLIS);
+    harness.stepView.setSteps(StepViewHarness.createSteps(STEP_COUNT));
+    harness.frame();
+
+    harness.stepView.setStepState(Step.State.COMPLETED, STEP_COUNT - 1);
+    assertTrue(harness.stepView.mStepViewIndicator.mTransitions.isRunning());
+    ShadowLooper.idleMainLooper(2 * DURATION_MILLIS, TimeUnit.MILLISECONDS);
+    harness.frame();
+
+    assertFalse(harness.stepView.mStepViewIndicator.mTransitions.isRunning());
+    TextView label = harness.stepView.mTextViewList.get((STEP_COUNT - 1) % harness.stepView.mTextViewList.size());
+    assertEquals(harness.stepView.getCompletedStepTextColor(), label.getCurrentTextColor());
+  }
+
+  @Test
+  public void transitionFrames_reuseTextColors() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    harness.stepView.setSteps(StepViewHarness.createSteps(STEP_COUNT));
+    harness.frame();
+    final int stepPosition = STEP_COUNT - 1;
+    TextView label = harness.stepView.mTextViewList.get(stepPosition % harness.stepView.mTextViewList.size());
+
+    harness.stepView.onStepTransition(stepPosition, Step.State.NOT_COMPLETED, Step.State.COMPLETED, 0.5f);
+    ColorStateList halfwayTextColor = label.getTextColors();
+    harness.stepView.onStepTransition(stepPosition, Step.State.NOT_COMPLETED, Step.State.COMPLETED, 0.75f);
+    harness.stepView.onStepTransition(stepPosition, Step.State.NOT_COMPLETED, Step.State.COMPLETED, 0.5f);
+
+    assertSame(halfwayTextColor, label.getTextColors());
+  }
+
+  @Test
+  public void changeDuringTransition_isCoalesced() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    harness.stepView.setStateTransitionDuration(DURATION_MILLIS);
+    harness.stepView.setSteps(StepViewHarness.createSteps(STEP_COUNT));
+    harness.frame();
+    StepTransitionAnimator transitions = harness.stepView.mStepViewIndicator.mTransitions;
+
+    final Step.State initialState = harness.stepView.getStep(STEP_COUNT - 1).getState();
+    harness.stepView.setStepState(Step.State.COMPLETED, STEP_COUNT - 1);
+    ShadowLooper.idleMainLooper(DURATION_MILLIS / 4, TimeUnit.MILLISECONDS);
+    harness.stepView.setStepState(initialState, STEP_COUNT - 1);
+
+    assertEquals(1, transitions.getCount());
+    assertEquals(Step.State.COMPLETED, transitions.getFromState(0));
+    assertEquals(initialState, transitions.getToState(0));
+    // Reversed from where it was, so it is now most of the way back
+    assertTrue(transitions.getInterpolatedFraction(0) > 0.5f);
+  }
+
+  @Test
+  public void setStepsWithMovedStep_animatesNoStep() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    harness.stepView.setStateTransitionDuration(DURATION_MILLIS);
+    List<Step> steps = StepViewHarness.createSteps(STEP_COUNT);
+    harness.stepView.setSteps(steps);
+    harness.frame();
+
+    // Moved before the completed steps, with its own state
+    steps.add(2, steps.remove(STEP_COUNT - 2));
+    harness.stepView.setSteps(steps);
+    harness.frame();
+
+    assertFalse(harness.stepView.mStepViewIndicator.mTransitions.isRunning());
+    assertEquals(steps, harness.stepView.getSteps());
+    assertEquals("Step " + (STEP_COUNT - 2), harness.stepView.getStep(2).getName());
+    assertEquals(Step.State.NOT_COMPLETED, harness.stepView.getStep(2).getState());
+  }
+
+  @Test
+  public void setSteps_endsTransitions() {
+    StepViewHarness harness = StepViewHarness.flatHorizontal();
+    harness.stepView.setStateTransitionDuration(DURATION_MILLIS);
+    harness.stepView.setSteps(StepViewHarness.createSteps(STEP_COUNT));
+    harness.frame();
+
+    harness.stepView.setStepState(Step.State.COMPLETED, STEP_COUNT - 1);
+    harness.stepView.setSteps(StepViewHarness.createSteps(STEP_COUNT / 2));
+
+    assertFalse(harness.stepView.mStepViewIndicator.mTransitions.isRunning());
+  }
+}
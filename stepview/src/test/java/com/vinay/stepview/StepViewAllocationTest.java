@@ -0,0 +1,189 @@
+package com.vinay.stepview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PixelFormat;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+
+import com.vinay.stepview.models.Step;
+import com.vinay.stepview.models.StepStateBuffer;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that redrawing a StepView whose steps did not change does not allocate.
+ * <p>
+ * The icons and the canvas are replaced by no-op implementations, so that only the allocations
+ * made by the library are counted. Allocations are counted with
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}: a single allocation per
+ * frame would add at least 16 bytes per frame, so the test fails if fewer bytes than frames are allowed.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class StepViewAllocationTest {
+
+  private static final int WARM_UP_FRAMES = 100;
+  private static final int FRAMES = 1000;
+
+  @Test
+  public void horizontalStepView_redrawDoesNotAllocate() {
+    StepView stepView = createStepView(new HorizontalStepView(RuntimeEnvironment.application));
+
+    assertDoesNotAllocate(stepView);
+  }
+
+  @Test
+  public void verticalStepView_redrawDoesNotAllocate() {
+    StepView stepView = createStepView(new VerticalStepView(RuntimeEnvironment.application));
+
+    assertDoesNotAllocate(stepView);
+  }
+
+  @Test
+  public void flatHorizontalStepView_redrawDoesNotAllocate() {
+    StepView stepView = createStepView(new FlatHorizontalStepView(RuntimeEnvironment.application));
+
+    assertEquals(0, stepView.getChildCount());
+    assertDoesNotAllocate(stepView);
+  }
+
+  @Test
+  public void flatHorizontalStepView_stepStateBufferRedrawDoesNotAllocate() {
+    StepView stepView = createStepView(new FlatHorizontalStepView(RuntimeEnvironment.application),
+        StepStateBuffer.of(createSteps()));
+
+    assertDoesNotAllocate(stepView);
+  }
+
+  @Test
+  public void horizontalStepView_progressUpdateDoesNotAllocate() {
+    StepView stepView = createStepView(new HorizontalStepView(RuntimeEnvironment.application));
+    Canvas canvas = new NoOpCanvas();
+    drawProgressFrames(stepView, canvas, WARM_UP_FRAMES);
+
+    final long allocatedBytes = getAllocatedBytes();
+    drawProgressFrames(stepView, canvas, FRAMES);
+    final long frameAllocatedBytes = getAllocatedBytes() - allocatedBytes;
+
+    assertTrue(String.format("%d bytes allocated over %d frames", frameAllocatedBytes, FRAMES), frameAllocatedBytes < FRAMES);
+  }
+
+  private static StepView createStepView(StepView stepView) {
+    return createStepView(stepView, createSteps());
+  }
+
+  private static StepView createStepView(StepView stepView, List<Step> steps) {
+    Drawable icon = new NoOpDrawable();
+    stepView.setCompletedStepIcon(icon)
+        .setCurrentStepIcon(icon)
+        .setNotCompletedStepIcon(icon)
+        .setSteps(steps);
+
+    stepView.measure(View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+    stepView.layout(0, 0, stepView.getMeasuredWidth(), stepView.getMeasuredHeight());
+    return stepView;
+  }
+
+  private static List<Step> createSteps() {
+    List<Step> steps = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      steps.add(new Step("Step " + i, i < 10 ? Step.State.COMPLETED : i == 10 ? Step.State.CURRENT : Step.State.NOT_COMPLETED));
+    }
+    return steps;
+  }
+
+  private static void assertDoesNotAllocate(StepView stepView) {
+    Canvas canvas = new NoOpCanvas();
+    drawFrames(stepView, canvas, WARM_UP_FRAMES);
+
+    final long allocatedBytes = getAllocatedBytes();
+    drawFrames(stepView, canvas, FRAMES);
+    final long frameAllocatedBytes = getAllocatedBytes() - allocatedBytes;
+
+    assertTrue(String.format("%d bytes allocated over %d frames", frameAllocatedBytes, FRAMES), frameAllocatedBytes < FRAMES);
+  }
+
+  /**
+   * Draws the indicator and brings the labels up to date, as a frame of the StepView would
+   */
+  private static void drawFrames(StepView stepView, Canvas canvas, int frameCount) {
+    for (int i = 0; i < frameCount; i++) {
+      stepView.mStepViewIndicator.onDraw(canvas);
+      stepView.updateView();
+    }
+  }
+
+  /**
+   * Updates the progress of the last step, then draws a frame
+   */
+  private static void drawProgressFrames(StepView stepView, Canvas canvas, int frameCount) {
+    for (int i = 0; i < frameCount; i++) {
+      stepView.setStepProgress((i % 100) / 100f, 19);
+      stepView.mStepViewIndicator.onDraw(canvas);
+      stepView.updateView();
+    }
+  }
+
+  private static long getAllocatedBytes() {
+    com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  private static final class NoOpCanvas extends Canvas {
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+    }
+
+    @Override
+    public void drawPath(Path path, Paint paint) {
+    }
+
+    @Override
+    public void drawLines(float[] pts, int offset, int count, Paint paint) {
+    }
+
+    @Override
+    public void drawLines(float[] pts, Paint paint) {
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+    }
+  }
+
+  private static final class NoOpDrawable extends Drawable {
+
+    @Override
+    public void draw(Canvas canvas) {
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter colorFilter) {
+    }
+
+    @Override
+    public int getOpacity() {
+      return PixelFormat.TRANSLUCENT;
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package com.vinay.stepview;
+
+import com.vinay.stepview.models.Step;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class StepViewEditorTest {
+
+  @Test
+  public void commit_appliesChangesInOrder() {
+    StepView stepView = StepViewHarness.horizontal().stepView;
+    stepView.setSteps(StepViewHarness.createSteps(3));
+
+    stepView.edit()
+        .remove(0)
+        .add(new Step("Step 3"))
+        .add(0, new Step("First"))
+        .setName(3, "Last")
+        .commit();
+
+    List<Step> steps = stepView.getSteps();
+    assertEquals(4, steps.size());
+    assertEquals("First", steps.get(0).getName());
+    assertEquals("Step 1", steps.get(1).getName());
+    assertEquals("Last", steps.get(3).getName());
+  }
+
+  @Test
+  public void commit_withInvalidPosition_appliesNoChange() {
+    StepView stepView = StepViewHarness.horizontal().stepView;
+    stepView.setSteps(StepViewHarness.createSteps(3));
+    List<Step> steps = stepView.getSteps();
+    StepView.Editor editor = stepView.edit()
+        .setState(0, Step.State.NOT_COMPLETED)
+        .remove(2)
+        .setName(2, "Removed");
+
+    try {
+      editor.commit();
+      fail();
+    } catch (IndexOutOfBoundsException e) {
+      assertEquals("Invalid step position 2. The list of steps has 2 items", e.getMessage());
+    }
+
+    assertSame(steps, stepView.getSteps());
+    assertEquals(Step.State.COMPLETED, steps.get(0).getState());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void commit_withNegativeAddPosition_throws() {
+    StepView stepView = StepViewHarness.horizontal().stepView;
+    stepView.setSteps(StepViewHarness.createSteps(3));
+
+    stepView.edit().add(-1, new Step("Step 3")).commit();
+  }
+
+  @Test
+  public void commit_afterFailure_startsFromEmptyQueue() {
+    StepView stepView = StepViewHarness.horizontal().stepView;
+    stepView.setSteps(StepViewHarness.createSteps(3));
+    StepView.Editor editor = stepView.edit().remove(5);
+    try {
+      editor.commit();
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+
+    editor.remove(0).commit();
+
+    assertEquals(2, stepView.getSteps().size());
+  }
+}
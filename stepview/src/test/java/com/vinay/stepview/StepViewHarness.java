@@ -0,0 +1,282 @@
+package com.vinay.stepview;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import com.vinay.stepview.models.Step;
+
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drives a StepView off-device, as the window it would be attached to does, and counts the work
+ * done: layout requests, layout passes and draw operations.
+ * <p>
+ * The StepView is the only child of a parent that stands for the window: the layout requests that
+ * reach the parent are the ones that would schedule a layout pass. {@link #frame()} stands for a
+ * frame: the StepView is measured and laid out if a layout was requested, then drawn on a canvas
+ * that counts draw operations instead of drawing, if it was laid out or a view was invalidated.
+ */
+final class StepViewHarness {
+
+  static final int WIDTH = 1080;
+
+  final StepView stepView;
+  private final CountingParent mParent;
+  private final CountingCanvas mCanvas = new CountingCanvas();
+
+  private int mLayoutPassCount;
+  private int mLayoutRequestsDuringDraw;
+  private boolean mDidDraw;
+
+  private StepViewHarness(StepView stepView) {
+    this.stepView = stepView;
+    mParent = new CountingParent(stepView.getContext());
+    mParent.addView(stepView);
+  }
+
+  static StepViewHarness horizontal() {
+    return new StepViewHarness(new HorizontalStepView(getContext()));
+  }
+
+  static StepViewHarness vertical() {
+    return new StepViewHarness(new VerticalStepView(getContext()));
+  }
+
+  static StepViewHarness flatHorizontal() {
+    return new StepViewHarness(new FlatHorizontalStepView(getContext()));
+  }
+
+  static StepViewHarness flatVertical() {
+    return new StepViewHarness(new FlatVerticalStepView(getContext()));
+  }
+
+  /**
+   * Returns a harness for every kind of StepView, with labels drawn by TextViews and on the canvas
+   */
+  static List<StepViewHarness> all() {
+    List<StepViewHarness> harnesses = new ArrayList<>();
+    harnesses.add(horizontal());
+    harnesses.add(vertical());
+    StepViewHarness canvasLabels = horizontal();
+    canvasLabels.stepView.setCanvasLabelsEnabled(true);
+    harnesses.add(canvasLabels);
+    canvasLabels = vertical();
+    canvasLabels.stepView.setCanvasLabelsEnabled(true);
+    harnesses.add(canvasLabels);
+    harnesses.add(flatHorizontal());
+    harnesses.add(flatVertical());
+    return harnesses;
+  }
+
+  /**
+   * Returns steps whose first half is completed, followed by the current step
+   */
+  static List<Step> createSteps(int stepCount) {
+    List<Step> steps = new ArrayList<>(stepCount);
+    for (int i = 0; i < stepCount; i++) {
+      Step.State state = i < stepCount / 2 ? Step.State.COMPLETED : i == stepCount / 2 ? Step.State.CURRENT : Step.State.NOT_COMPLETED;
+      steps.add(new Step("Step " + i, state));
+    }
+    return steps;
+  }
+
+  /**
+   * Runs a frame: a layout pass if a layout was requested, then a draw pass if the StepView was
+   * laid out or a view of the tree was invalidated, see {@link #didDraw()}
+   */
+  void frame() {
+    final boolean isLayoutNeeded = mParent.isLayoutRequested() || mParent.getWidth() == 0;
+    if (isLayoutNeeded) {
+      mParent.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+          View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+      mParent.layout(0, 0, mParent.getMeasuredWidth(), mParent.getMeasuredHeight());
+      mLayoutPassCount++;
+    }
+    mDidDraw = isLayoutNeeded || isDirty(mParent);
+    if (!mDidDraw) {
+      return;
+    }
+    mCanvas.reset();
+    final int requestLayoutCount = mParent.requestLayoutCount;
+    mParent.draw(mCanvas);
+    mLayoutRequestsDuringDraw += mParent.requestLayoutCount - requestLayoutCount;
+  }
+
+  /**
+   * Returns whether a view of the tree was invalidated. The views are not attached to a window,
+   * so an invalidation does not reach their parents: each view is checked.
+   */
+  private static boolean isDirty(View view) {
+    if (view.isDirty()) {
+      return true;
+    }
+    if (view instanceof ViewGroup) {
+      ViewGroup viewGroup = (ViewGroup) view;
+      for (int i = 0; i < viewGroup.getChildCount(); i++) {
+        if (isDirty(viewGroup.getChildAt(i))) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns whether the last frame drew the StepView, as opposed to skipping the draw pass since
+   * nothing changed
+   */
+  boolean didDraw() {
+    return mDidDraw;
+  }
+
+  /**
+   * Resets the layout requests and layout passes counted so far
+   */
+  void resetCounts() {
+    mParent.requestLayoutCount = 0;
+    mLayoutPassCount = 0;
+  }
+
+  /**
+   * Returns the number of layout requests that reached the window since the counts were reset
+   */
+  int getRequestLayoutCount() {
+    return mParent.requestLayoutCount;
+  }
+
+  /**
+   * Returns the number of layout passes run by {@link #frame()} since the counts were reset
+   */
+  int getLayoutPassCount() {
+    return mLayoutPassCount;
+  }
+
+  /**
+   * Returns the number of layout requests made while drawing, over the lifetime of the harness.
+   * Any such request would cause a layout-draw loop.
+   */
+  int getLayoutRequestsDuringDraw() {
+    return mLayoutRequestsDuringDraw;
+  }
+
+  /**
+   * Returns the number of draw operations of the last frame that drew
+   */
+  int getDrawOpCount() {
+    return mCanvas.drawOpCount;
+  }
+
+  /**
+   * Returns the number of draw operations that drew lines, in the last frame that drew
+   */
+  int getLineDrawOpCount() {
+    return mCanvas.lineDrawOpCount;
+  }
+
+  @Override
+  public String toString() {
+    return stepView.getClass().getSimpleName() + (stepView.isCanvasLabelsEnabled() ? " with canvas labels" : "");
+  }
+
+  private static Context getContext() {
+    return RuntimeEnvironment.application;
+  }
+
+  /**
+   * Stands for the window: counts the layout requests that reach it
+   */
+  private static final class CountingParent extends FrameLayout {
+    int requestLayoutCount;
+
+    CountingParent(Context context) {
+      super(context);
+    }
+
+    @Override
+    public void requestLayout() {
+      requestLayoutCount++;
+      super.requestLayout();
+    }
+  }
+
+  /**
+   * Counts draw operations instead of drawing
+   */
+  private static final class CountingCanvas extends Canvas {
+    int drawOpCount;
+    int lineDrawOpCount;
+
+    void reset() {
+      drawOpCount = 0;
+      lineDrawOpCount = 0;
+    }
+
+    @Override
+    public void drawLines(float[] pts, int offset, int count, Paint paint) {
+      drawOpCount++;
+      lineDrawOpCount++;
+    }
+
+    @Override
+    public void drawLines(float[] pts, Paint paint) {
+      drawOpCount++;
+      lineDrawOpCount++;
+    }
+
+    @Override
+    public void drawPath(Path path, Paint paint) {
+      drawOpCount++;
+      lineDrawOpCount++;
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+      drawOpCount++;
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+      drawOpCount++;
+    }
+
+    @Override
+    public void drawRect(RectF rect, Paint paint) {
+      drawOpCount++;
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint) {
+      drawOpCount++;
+    }
+
+    @Override
+    public void drawText(CharSequence text, int start, int end, float x, float y, Paint paint) {
+      drawOpCount++;
+    }
+
+    @Override
+    public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+      drawOpCount++;
+    }
+
+    @Override
+    public void drawTextRun(CharSequence text, int start, int end, int contextStart, int contextEnd, float x, float y, boolean isRtl, Paint paint) {
+      drawOpCount++;
+    }
+
+    @Override
+    public void drawTextRun(char[] text, int index, int count, int contextIndex, int contextCount, float x, float y, boolean isRtl, Paint paint) {
+      drawOpCount++;
+    }
+  }
+}
@@ -0,0 +1,228 @@
+package com.vinay.stepview;
+
+import androidx.annotation.NonNull;
+
+import com.vinay.stepview.models.Step;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class StepViewMetricsTest {
+
+  @Test
+  public void frame_reportsOnePassOfEachKind() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    harness.frame();
+    RecordingMetrics metrics = new RecordingMetrics();
+    harness.stepView.setMetrics(metrics);
+
+    harness.stepView.setSteps(StepViewHarness.createSteps(10));
+    harness.frame();
+
+    assertEquals(1, metrics.invalidationCount);
+    assertEquals(10, metrics.invalidatedStepCount);
+    assertTrue(metrics.isLayoutRequested);
+    assertEquals(10, metrics.boundLabelCount);
+    assertEquals(1, metrics.measureCount);
+    assertEquals(1, metrics.layoutCount);
+    assertEquals(1, metrics.drawCount);
+  }
+
+  @Test
+  public void stateChange_reportsSingleStepInvalidationAndBinding() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    harness.stepView.setSteps(StepViewHarness.createSteps(10));
+    harness.frame();
+    RecordingMetrics metrics = new RecordingMetrics();
+    harness.stepView.setMetrics(metrics);
+
+    harness.stepView.setStepState(Step.State.COMPLETED, 9);
+    harness.frame();
+
+    assertEquals(1, metrics.invalidationCount);
+    assertEquals(1, metrics.invalidatedStepCount);
+    assertFalse(metrics.isLayoutRequested);
+    assertEquals(1, metrics.boundLabelCount);
+    assertEquals(0, metrics.measureCount);
+    assertEquals(1, metrics.drawCount);
+  }
+
+  @Test
+  public void stateChange_reportsInvalidationDuration() {
+    StepViewHarness harness = StepViewHarness.vertical();
+    harness.stepView.setSteps(StepViewHarness.createSteps(10));
+    harness.frame();
+    RecordingMetrics metrics = new RecordingMetrics();
+    harness.stepView.setMetrics(metrics);
+
+    harness.stepView.setStepState(Step.State.CURRENT, 0);
+
+    assertTrue(metrics.invalidationNanos > 0);
+  }
+
+  /**
+   * When the geometry is out of date, invalidating the step brings all the labels up to date,
+   * which must not hide the step from the metrics
+   */
+  @Test
+  public void stateChangeWhileGeometryIsStale_reportsChangedStep() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    harness.stepView.setCanvasLabelsEnabled(true);
+    harness.stepView.setSteps(StepViewHarness.createSteps(10));
+    harness.frame();
+    RecordingMetrics metrics = new RecordingMetrics();
+    harness.stepView.setMetrics(metrics);
+
+    harness.stepView.mStepViewIndicator.mLayoutEngine.invalidate();
+    harness.stepView.setStepState(Step.State.COMPLETED, 9);
+
+    assertEquals(1, metrics.invalidationCount);
+    assertEquals(1, metrics.invalidatedStepCount);
+  }
+
+  @Test
+  public void progressChange_bindsNoLabels() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    harness.stepView.setSteps(StepViewHarness.createSteps(10));
+    harness.frame();
+    RecordingMetrics metrics = new RecordingMetrics();
+    harness.stepView.setMetrics(metrics);
+
+    harness.stepView.setStepProgress(0.5f, 9);
+    harness.frame();
+
+    assertEquals(0, metrics.invalidationCount);
+    assertEquals(0, metrics.boundLabelCount);
+    assertEquals(0, metrics.measureCount);
+    assertEquals(1, metrics.drawCount);
+  }
+
+  @Test
+  public void setEqualSteps_invalidatesNothing() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    harness.stepView.setSteps(StepViewHarness.createSteps(10));
+    harness.frame();
+    RecordingMetrics metrics = new RecordingMetrics();
+    harness.stepView.setMetrics(metrics);
+
+    harness.resetCounts();
+    harness.stepView.setSteps(StepViewHarness.createSteps(10));
+    harness.frame();
+
+    assertEquals(0, metrics.invalidationCount);
+    assertEquals(0, metrics.boundLabelCount);
+    assertEquals(0, harness.getRequestLayoutCount());
+  }
+
+  @Test
+  public void setStepsWithOneStateChange_rebindsOneLabel() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    harness.stepView.setSteps(StepViewHarness.createSteps(10));
+    harness.frame();
+    RecordingMetrics metrics = new RecordingMetrics();
+    harness.stepView.setMetrics(metrics);
+
+    List<Step> steps = StepViewHarness.createSteps(10);
+    steps.get(9).setState(Step.State.COMPLETED);
+    harness.stepView.setSteps(steps);
+    harness.frame();
+
+    assertEquals(1, metrics.invalidationCount);
+    assertEquals(1, metrics.invalidatedStepCount);
+    assertFalse(metrics.isLayoutRequested);
+    assertEquals(1, metrics.boundLabelCount);
+    assertSame(harness.stepView.getSteps(), harness.stepView.mStepViewIndicator.mStepList);
+  }
+
+  @Test
+  public void setStepsWithAppendedStep_rebindsOnlyChangedLabels() {
+    StepViewHarness harness = StepViewHarness.vertical();
+    List<Step> steps = StepViewHarness.createSteps(10);
+    harness.stepView.setSteps(new ArrayList<>(steps));
+    harness.frame();
+    RecordingMetrics metrics = new RecordingMetrics();
+    harness.stepView.setMetrics(metrics);
+
+    steps.add(new Step("Step 10"));
+    harness.stepView.setSteps(steps);
+    harness.frame();
+
+    assertEquals(1, metrics.invalidationCount);
+    assertTrue(metrics.isLayoutRequested);
+    assertEquals(1, metrics.boundLabelCount);
+  }
+
+  @Test
+  public void canvasLabels_areReportedAsBoundWhenDrawn() {
+    StepViewHarness harness = StepViewHarness.flatHorizontal();
+    RecordingMetrics metrics = new RecordingMetrics();
+    harness.stepView.setMetrics(metrics);
+
+    harness.stepView.setSteps(StepViewHarness.createSteps(10));
+    harness.frame();
+
+    assertEquals(10, metrics.boundLabelCount);
+    assertEquals(1, metrics.drawCount);
+  }
+
+  @Test
+  public void noMetrics_stopsReporting() {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    RecordingMetrics metrics = new RecordingMetrics();
+    harness.stepView.setMetrics(metrics);
+    harness.stepView.setMetrics(null);
+
+    harness.stepView.setSteps(StepViewHarness.createSteps(10));
+    harness.frame();
+
+    assertEquals(0, metrics.invalidationCount + metrics.measureCount + metrics.layoutCount + metrics.drawCount);
+  }
+
+  private static final class RecordingMetrics implements StepViewMetrics {
+    int measureCount;
+    int layoutCount;
+    int drawCount;
+    int boundLabelCount;
+    int invalidationCount;
+    int invalidatedStepCount;
+    boolean isLayoutRequested;
+    long invalidationNanos;
+
+    @Override
+    public void onMeasure(@NonNull StepView stepView, long durationNanos) {
+      measureCount++;
+    }
+
+    @Override
+    public void onLayout(@NonNull StepView stepView, long durationNanos) {
+      layoutCount++;
+    }
+
+    @Override
+    public void onDraw(@NonNull StepView stepView, long durationNanos) {
+      drawCount++;
+    }
+
+    @Override
+    public void onLabelsBound(@NonNull StepView stepView, int labelCount, int textMeasureCount, long durationNanos) {
+      boundLabelCount += labelCount;
+    }
+
+    @Override
+    public void onStepsInvalidated(@NonNull StepView stepView, int stepCount, boolean isLayoutRequested, long durationNanos) {
+      invalidationCount++;
+      invalidatedStepCount += stepCount;
+      this.isLayoutRequested |= isLayoutRequested;
+      invalidationNanos += durationNanos;
+    }
+  }
+}
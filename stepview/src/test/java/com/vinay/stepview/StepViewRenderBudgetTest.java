@@ -0,0 +1,185 @@
+package com.vinay.stepview;
+
+import com.vinay.stepview.models.Step;
+import com.vinay.stepview.models.StepStateBuffer;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the layout passes and draw operations that the common operations of every kind of
+ * StepView cost, with {@link StepViewHarness}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class StepViewRenderBudgetTest {
+
+  private static final int STEP_COUNT = 20;
+
+  @Test
+  public void firstFrames_layOutOnceAndDrawWithoutRequestingLayout() {
+    for (StepViewHarness harness : StepViewHarness.all()) {
+      harness.stepView.setSteps(StepViewHarness.createSteps(STEP_COUNT));
+      harness.resetCounts();
+      harness.frame();
+      harness.frame();
+
+      assertEquals(harness.toString(), 1, harness.getLayoutPassCount());
+      assertEquals(harness.toString(), 0, harness.getLayoutRequestsDuringDraw());
+      assertTrue(harness.toString(), harness.getDrawOpCount() > 0);
+    }
+  }
+
+  @Test
+  public void unchangedFrame_costsNoLayoutAndNoDraw() {
+    for (StepViewHarness harness : StepViewHarness.all()) {
+      drawSteps(harness);
+
+      harness.resetCounts();
+      harness.frame();
+
+      assertEquals(harness.toString(), 0, harness.getRequestLayoutCount());
+      assertEquals(harness.toString(), 0, harness.getLayoutPassCount());
+      assertFalse(harness.toString(), harness.didDraw());
+    }
+  }
+
+  @Test
+  public void completingStep_costsNoLayoutAndSameDrawOps() {
+    for (StepViewHarness harness : StepViewHarness.all()) {
+      final int drawOpCount = drawSteps(harness);
+
+      harness.resetCounts();
+      harness.stepView.setStepState(Step.State.COMPLETED, STEP_COUNT - 1);
+      harness.frame();
+
+      assertTrue(harness.toString(), harness.didDraw());
+      assertEquals(harness.toString(), 0, harness.getRequestLayoutCount());
+      assertEquals(harness.toString(), 0, harness.getLayoutPassCount());
+      assertEquals(harness.toString(), drawOpCount, harness.getDrawOpCount());
+      assertEquals(harness.toString(), 0, harness.getLayoutRequestsDuringDraw());
+    }
+  }
+
+  /**
+   * The label of the current step is bold, so a TextView label is measured again when the current
+   * step changes. Labels drawn on the canvas are not.
+   */
+  @Test
+  public void movingCurrentStep_withCanvasLabels_costsNoLayout() {
+    for (StepViewHarness harness : StepViewHarness.all()) {
+      if (!harness.stepView.isCanvasLabelsEnabled()) {
+        continue;
+      }
+      final int drawOpCount = drawSteps(harness);
+
+      harness.resetCounts();
+      harness.stepView.beginBatch()
+          .setStepState(Step.State.COMPLETED, STEP_COUNT / 2)
+          .setStepState(Step.State.CURRENT, STEP_COUNT / 2 + 1)
+          .endBatch();
+      harness.frame();
+
+      assertTrue(harness.toString(), harness.didDraw());
+      assertEquals(harness.toString(), 0, harness.getRequestLayoutCount());
+      assertEquals(harness.toString(), 0, harness.getLayoutPassCount());
+      assertEquals(harness.toString(), drawOpCount, harness.getDrawOpCount());
+    }
+  }
+
+  /**
+   * The progress of a step is drawn over the lines, which are not rebuilt
+   */
+  @Test
+  public void updatingProgress_costsNoLayoutAndOneLineDrawOp() {
+    for (StepViewHarness harness : StepViewHarness.all()) {
+      drawSteps(harness);
+      final int lineDrawOpCount = harness.getLineDrawOpCount();
+
+      harness.resetCounts();
+      for (int i = 1; i <= 10; i++) {
+        harness.stepView.setStepProgress(i / 10f, STEP_COUNT - 1);
+        harness.frame();
+
+        assertTrue(harness.toString(), harness.didDraw());
+        assertEquals(harness.toString(), lineDrawOpCount + 1, harness.getLineDrawOpCount());
+      }
+      assertEquals(harness.toString(), 0, harness.getRequestLayoutCount());
+      assertEquals(harness.toString(), 0, harness.getLayoutPassCount());
+    }
+  }
+
+  @Test
+  public void lineDrawOps_doNotDependOnStepCount() {
+    for (StepViewHarness harness : StepViewHarness.all()) {
+      harness.stepView.setSteps(StepViewHarness.createSteps(5));
+      harness.frame();
+      final int lineDrawOpCount = harness.getLineDrawOpCount();
+
+      harness.stepView.setSteps(StepViewHarness.createSteps(50));
+      harness.frame();
+
+      assertTrue(harness.toString(), lineDrawOpCount <= 3);
+      assertEquals(harness.toString(), lineDrawOpCount, harness.getLineDrawOpCount());
+    }
+  }
+
+  /**
+   * The progress is drawn over the snapshot rather than recorded into it, but must look the same
+   */
+  @Test
+  public void progressOverSnapshot_overlapsIconsAsWithoutSnapshot() {
+    assertArrayEquals(drawProgressLine(false), drawProgressLine(true), 0);
+  }
+
+  /**
+   * The lines are cached, but a state changed in a {@link StepStateBuffer} itself must still show
+   * on the next frame once the StepView is invalidated.
+   */
+  @Test
+  public void stepChangedDirectly_rebuildsLinesOnNextFrame() {
+    for (StepViewHarness harness : StepViewHarness.all()) {
+      StepStateBuffer steps = StepStateBuffer.of(StepViewHarness.createSteps(10));
+      harness.stepView.setSteps(steps);
+      harness.frame();
+      final int completedLinePointCount = harness.stepView.mStepViewIndicator.mCompletedLinePointCount;
+
+      steps.setState(6, Step.State.COMPLETED);
+      harness.stepView.invalidate();
+      harness.frame();
+
+      assertEquals(harness.toString(), completedLinePointCount + 4, harness.stepView.mStepViewIndicator.mCompletedLinePointCount);
+    }
+  }
+
+  /**
+   * Draws a horizontal StepView whose last step is half done
+   *
+   * @return Segment of the completed part of the line leading to the last step
+   */
+  private static float[] drawProgressLine(boolean isSnapshotEnabled) {
+    StepViewHarness harness = StepViewHarness.horizontal();
+    harness.stepView.setSnapshotEnabled(isSnapshotEnabled);
+    harness.stepView.setSteps(StepViewHarness.createSteps(10));
+    harness.frame();
+    harness.stepView.setStepProgress(0.5f, 9);
+    harness.frame();
+    return harness.stepView.mStepViewIndicator.mTransitionLinePoints.clone();
+  }
+
+  /**
+   * Binds and draws {@link #STEP_COUNT} steps
+   *
+   * @return Number of draw operations of a frame
+   */
+  private static int drawSteps(StepViewHarness harness) {
+    harness.stepView.setSteps(StepViewHarness.createSteps(STEP_COUNT));
+    harness.frame();
+    harness.frame();
+    return harness.getDrawOpCount();
+  }
+}
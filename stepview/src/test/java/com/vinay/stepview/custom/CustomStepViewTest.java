@@ -0,0 +1,62 @@
+package com.vinay.stepview.custom;
+
+import android.content.Context;
+import android.view.View;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+
+import com.vinay.stepview.HorizontalStepView;
+import com.vinay.stepview.models.Step;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that apps can extend the StepViews from their own package
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class CustomStepViewTest {
+
+  @Test
+  public void subclass_positionsLabels() {
+    CustomStepView stepView = new CustomStepView(RuntimeEnvironment.application);
+    List<Step> steps = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      steps.add(new Step("Step " + i));
+    }
+    stepView.setSteps(steps);
+
+    stepView.measure(View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+    stepView.layout(0, 0, stepView.getMeasuredWidth(), stepView.getMeasuredHeight());
+
+    assertTrue(stepView.positionedLabelCount >= 4);
+    assertTrue(stepView.lastStepCenter > 0);
+  }
+
+  static final class CustomStepView extends HorizontalStepView {
+    int positionedLabelCount;
+    float lastStepCenter;
+
+    CustomStepView(Context context) {
+      super(context);
+    }
+
+    @Override
+    protected void positionLabel(@NonNull TextView textView, int labelWidth, float stepCenter, int stepPosition) {
+      super.positionLabel(textView, labelWidth, stepCenter, stepPosition);
+      positionedLabelCount++;
+      lastStepCenter = stepCenter;
+    }
+  }
+}